@@ -99,7 +99,7 @@ public class DiffUtilActivity extends BaseActivity {
                         "😊😊Item " + 0,
                         "Item " + 0 + " content have change (notifyItemChanged)",
                         "06-12"));
-                mAdapter.notifyItemChanged(0 + mAdapter.getHeaderLayoutCount(), DiffUtilAdapter.ITEM_0_PAYLOAD);
+                mAdapter.notifyItemChangedMask(0, DiffUtilAdapter.TITLE_CHANGED | DiffUtilAdapter.CONTENT_CHANGED);
             }
         });
     }
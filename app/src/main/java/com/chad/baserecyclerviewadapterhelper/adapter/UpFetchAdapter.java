@@ -14,6 +14,8 @@ import com.chad.baserecyclerviewadapterhelper.entity.Movie;
 public class UpFetchAdapter extends BaseDataBindingAdapter<Movie, ItemMovieBinding> {
     public UpFetchAdapter() {
         super(R.layout.item_movie, null);
+        // the rows have a fixed height
+        setDeferPendingBindings(true);
     }
 
     @Override
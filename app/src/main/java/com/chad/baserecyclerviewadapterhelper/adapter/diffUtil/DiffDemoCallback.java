@@ -52,25 +52,30 @@ public class DiffDemoCallback extends BaseQuickDiffCallback<DiffUtilDemoEntity>
     /**
      * Optional implementation
      * Implement this method if you need to precisely modify the content of a view.
-     * If this method is not implemented, or if null is returned, the entire item will be refreshed.
+     * If this method is not implemented, or if 0 is returned, the entire item will be refreshed.
      *
      * 可选实现
      * 如果需要精确修改某一个view中的内容，请实现此方法。
-     * 如果不实现此方法，或者返回null，将会直接刷新整个item。
+     * 如果不实现此方法，或者返回0，将会直接刷新整个item。
      *
      * @param oldItem Old data
      * @param newItem New data
-     * @return Payload info. if return null, the entire item will be refreshed.
+     * @return a bit per changed field. if return 0, the entire item will be refreshed.
      */
     @Override
-    protected Object getChangePayload(@NonNull DiffUtilDemoEntity oldItem, @NonNull DiffUtilDemoEntity newItem) {
+    protected long getChangeMask(@NonNull DiffUtilDemoEntity oldItem, @NonNull DiffUtilDemoEntity newItem) {
+        long mask = 0;
         if (!oldItem.getTitle().equals(newItem.getTitle())) {
-            // if only title change（如果标题变化了）
-            return DiffUtilAdapter.TITLE_PAYLOAD;
-        } else if (!oldItem.getContent().equals(newItem.getContent())) {
-            // if only content change（如果内容变化了）
-            return DiffUtilAdapter.CONTENT_PAYLOAD;
+            // title changed（标题变化了）
+            mask |= DiffUtilAdapter.TITLE_CHANGED;
         }
-        return null;
+        if (!oldItem.getContent().equals(newItem.getContent())) {
+            // content changed（内容变化了）
+            mask |= DiffUtilAdapter.CONTENT_CHANGED;
+        }
+        if (!oldItem.getDate().equals(newItem.getDate())) {
+            mask |= DiffUtilAdapter.DATE_CHANGED;
+        }
+        return mask;
     }
 }
\ No newline at end of file
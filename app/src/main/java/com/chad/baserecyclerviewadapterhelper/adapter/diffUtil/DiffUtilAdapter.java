@@ -14,9 +14,9 @@ import java.util.List;
  * Create adapter
  */
 public class DiffUtilAdapter extends BaseQuickAdapter<DiffUtilDemoEntity, BaseViewHolder> {
-    public static final int TITLE_PAYLOAD = 899;
-    public static final int CONTENT_PAYLOAD = 900;
-    public static final int ITEM_0_PAYLOAD = 901;
+    public static final long TITLE_CHANGED = 1L;
+    public static final long CONTENT_CHANGED = 1L << 1;
+    public static final long DATE_CHANGED = 1L << 2;
 
     public DiffUtilAdapter(List<DiffUtilDemoEntity> list) {
         super(R.layout.layout_animation, list);
@@ -30,26 +30,24 @@ public class DiffUtilAdapter extends BaseQuickAdapter<DiffUtilDemoEntity, BaseVi
     }
 
     /**
-     * This method will only be executed when there is payload info
+     * This method will only be executed when there is a change mask
      *
-     * 当有 payload info 时，只会执行此方法
+     * 当有变化的位掩码时，只会执行此方法
      *
-     * @param helper   A fully initialized helper.
-     * @param item     The item that needs to be displayed.
-     * @param payloads payload info.
+     * @param helper A fully initialized helper.
+     * @param item   The item that needs to be displayed.
+     * @param mask   the changed fields of all updates since the last bind.
      */
     @Override
-    protected void convertPayloads(@NonNull BaseViewHolder helper, DiffUtilDemoEntity item, @NonNull List<Object> payloads) {
-        for (Object p : payloads) {
-            int payload = (int) p;
-            if (payload == TITLE_PAYLOAD) {
-                helper.setText(R.id.tweetName, item.getTitle());
-            } else if (payload == CONTENT_PAYLOAD) {
-                helper.setText(R.id.tweetText, item.getContent());
-            } else if (payload == ITEM_0_PAYLOAD) {
-                helper.setText(R.id.tweetName, item.getTitle())
-                        .setText(R.id.tweetText, item.getContent());
-            }
+    protected void convertPayloads(@NonNull BaseViewHolder helper, DiffUtilDemoEntity item, long mask) {
+        if ((mask & TITLE_CHANGED) != 0) {
+            helper.setText(R.id.tweetName, item.getTitle());
+        }
+        if ((mask & CONTENT_CHANGED) != 0) {
+            helper.setText(R.id.tweetText, item.getContent());
+        }
+        if ((mask & DATE_CHANGED) != 0) {
+            helper.setText(R.id.tweetDate, item.getDate());
         }
     }
 }
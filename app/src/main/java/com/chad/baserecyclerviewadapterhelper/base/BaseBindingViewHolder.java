@@ -13,6 +13,7 @@ import com.chad.library.adapter.base.BaseViewHolder;
 
 public class BaseBindingViewHolder<B extends ViewDataBinding> extends BaseViewHolder {
     private B mB;
+    private Object mBoundItem;
 
     public BaseBindingViewHolder(View view) {
         super(view);
@@ -25,4 +26,15 @@ public class BaseBindingViewHolder<B extends ViewDataBinding> extends BaseViewHo
     public void setBinding(B b) {
         mB = b;
     }
+
+    /**
+     * @return the item the binding was last bound to, null after the holder was recycled
+     */
+    public Object getBoundItem() {
+        return mBoundItem;
+    }
+
+    public void setBoundItem(Object item) {
+        mBoundItem = item;
+    }
 }
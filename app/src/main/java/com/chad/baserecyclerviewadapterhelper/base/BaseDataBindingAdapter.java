@@ -5,10 +5,17 @@ import androidx.databinding.DataBindingUtil;
 import androidx.databinding.ViewDataBinding;
 import androidx.annotation.LayoutRes;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
 import com.chad.library.adapter.base.BaseQuickAdapter;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.WeakHashMap;
 
 
 /**
@@ -19,6 +26,39 @@ import java.util.List;
 
 public abstract class BaseDataBindingAdapter<T, B extends ViewDataBinding> extends BaseQuickAdapter<T, BaseBindingViewHolder<B>> {
 
+    private boolean mDeferPendingBindings;
+    private final ArrayList<BaseBindingViewHolder<B>> mPendingHolders = new ArrayList<>();
+    /**
+     * the items notified with notifyItemChanged and not bound since, weak so removed items go away
+     */
+    private final WeakHashMap<Object, Boolean> mNotifiedItems = new WeakHashMap<>();
+    private int mAttachedCount;
+    private final RecyclerView.AdapterDataObserver mChangeObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            onItemsNotified(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            if (payload == null) {
+                onItemsNotified(positionStart, itemCount);
+            }
+        }
+    };
+    @Nullable
+    private ViewTreeObserver mPreDrawObserver;
+    /**
+     * Executes the bindings of the holders bound in the layout pass, once, before the frame is drawn.
+     */
+    private final ViewTreeObserver.OnPreDrawListener mExecuteBindings = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            removePreDrawListener();
+            executePendingBindings();
+            return true;
+        }
+    };
 
     public BaseDataBindingAdapter(@LayoutRes int layoutResId, @Nullable List<T> data) {
         super(layoutResId, data);
@@ -32,6 +72,22 @@ public abstract class BaseDataBindingAdapter<T, B extends ViewDataBinding> exten
         super(layoutResId);
     }
 
+    /**
+     * Execute the pending bindings of all holders bound in a layout pass together right before the
+     * frame is drawn, instead of inside the layout pass on every bind. The rows are measured before
+     * their bindings are executed, only turn it on if the size of a row does not depend on the
+     * bound values.
+     * <p>
+     * 同一帧内绑定的 holder 在绘制前统一执行 executePendingBindings，只适用于高度不随数据变化的条目
+     */
+    public void setDeferPendingBindings(boolean defer) {
+        mDeferPendingBindings = defer;
+        if (!defer) {
+            removePreDrawListener();
+            executePendingBindings();
+        }
+    }
+
     @Override
     protected BaseBindingViewHolder<B> createBaseViewHolder(View view) {
         return new BaseBindingViewHolder<>(view);
@@ -51,11 +107,123 @@ public abstract class BaseDataBindingAdapter<T, B extends ViewDataBinding> exten
         return holder;
     }
 
+    /**
+     * Whether {@code newItem} binds exactly like {@code oldItem}, the item the holder shows. A full
+     * bind of such an item is skipped unless the row was notified with notifyItemChanged since, e.g.
+     * when equal items are set again. Only return true if all the row shows comes from the item.
+     * False by default, not used with a PagedList.
+     */
+    protected boolean isSameBinding(@NonNull T oldItem, @NonNull T newItem) {
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
     @Override
     protected void convert(@NonNull BaseBindingViewHolder<B> helper, T item) {
+        Object boundItem = helper.getBoundItem();
+        helper.setBoundItem(item);
+        boolean notified = mNotifiedItems.remove(item) != null;
+        if (!notified && boundItem != null && item != null && !isUsePaged() && isSameBinding((T) boundItem, item)) {
+            return;
+        }
         convert(helper.getBinding(), item);
-        helper.getBinding().executePendingBindings();
+        onBound(helper);
+    }
+
+    /**
+     * Only the variables set in {@link #convert(ViewDataBinding, Object, List)} are marked dirty,
+     * so only the expressions depending on them are evaluated.
+     */
+    @Override
+    protected void convertPayloads(@NonNull BaseBindingViewHolder<B> helper, T item, @NonNull List<Object> payloads) {
+        helper.setBoundItem(item);
+        convert(helper.getBinding(), item, payloads);
+        onBound(helper);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull BaseBindingViewHolder<B> holder) {
+        super.onViewRecycled(holder);
+        holder.setBoundItem(null);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        if (mAttachedCount++ == 0) {
+            registerAdapterDataObserver(mChangeObserver);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (--mAttachedCount == 0) {
+            unregisterAdapterDataObserver(mChangeObserver);
+            mNotifiedItems.clear();
+        }
+        removePreDrawListener();
+        executePendingBindings();
     }
 
     protected abstract void convert(B b, T item);
+
+    /**
+     * Set only the variables the payloads are about. Binds all variables by default.
+     */
+    protected void convert(B b, T item, @NonNull List<Object> payloads) {
+        convert(b, item);
+    }
+
+    /**
+     * @param positionStart adapter position
+     */
+    private void onItemsNotified(int positionStart, int itemCount) {
+        if (isUsePaged()) {
+            return;
+        }
+        List<T> data = getData();
+        int start = Math.max(positionStart - getDataOffset(), 0);
+        int end = Math.min(positionStart - getDataOffset() + itemCount, data.size());
+        for (int i = start; i < end; i++) {
+            mNotifiedItems.put(data.get(i), Boolean.TRUE);
+        }
+    }
+
+    private void onBound(BaseBindingViewHolder<B> helper) {
+        B binding = helper.getBinding();
+        if (binding == null) {
+            return;
+        }
+        RecyclerView recyclerView = getRecyclerView();
+        if (!mDeferPendingBindings || recyclerView == null) {
+            binding.executePendingBindings();
+            return;
+        }
+        mPendingHolders.add(helper);
+        if (mPreDrawObserver == null) {
+            mPreDrawObserver = recyclerView.getViewTreeObserver();
+            mPreDrawObserver.addOnPreDrawListener(mExecuteBindings);
+        }
+    }
+
+    private void executePendingBindings() {
+        for (int i = 0; i < mPendingHolders.size(); i++) {
+            B binding = mPendingHolders.get(i).getBinding();
+            // a holder bound twice in the frame was executed the first time
+            if (binding.hasPendingBindings()) {
+                binding.executePendingBindings();
+            }
+        }
+        mPendingHolders.clear();
+    }
+
+    private void removePreDrawListener() {
+        if (mPreDrawObserver != null) {
+            if (mPreDrawObserver.isAlive()) {
+                mPreDrawObserver.removeOnPreDrawListener(mExecuteBindings);
+            }
+            mPreDrawObserver = null;
+        }
+    }
 }
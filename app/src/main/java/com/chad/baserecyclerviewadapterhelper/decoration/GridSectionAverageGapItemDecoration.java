@@ -3,7 +3,6 @@ package com.chad.baserecyclerviewadapterhelper.decoration;
 import android.graphics.Rect;
 import android.os.Build;
 
-import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import android.util.DisplayMetrics;
@@ -13,9 +12,8 @@ import android.view.View;
 import com.chad.library.adapter.base.BaseSectionQuickAdapter;
 import com.chad.library.adapter.base.BaseViewHolder;
 import com.chad.library.adapter.base.entity.SectionEntity;
+import com.chad.library.adapter.base.util.SectionIndex;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * 应用于RecyclerView的GridLayoutManager，水平方向上固定间距大小，从而使条目宽度自适应。<br>
@@ -27,27 +25,6 @@ import java.util.List;
  */
 public class GridSectionAverageGapItemDecoration extends RecyclerView.ItemDecoration {
 
-    private class Section {
-        public int startPos = 0;
-        public int endPos = 0;
-
-        public int getCount() {
-            return endPos - startPos + 1;
-        }
-
-        public boolean contains(int pos) {
-            return pos >= startPos && pos <= endPos;
-        }
-
-        @Override
-        public String toString() {
-            return "Section{" +
-                    "startPos=" + startPos +
-                    ", endPos=" + endPos +
-                    '}';
-        }
-    }
-
     private float gapHorizontalDp;
     private float gapVerticalDp;
     private float sectionEdgeHPaddingDp;
@@ -57,39 +34,6 @@ public class GridSectionAverageGapItemDecoration extends RecyclerView.ItemDecora
     private int sectionEdgeHPaddingPx;
     private int eachItemHPaddingPx; //每个条目应该在水平方向上加的padding 总大小，即=paddingLeft+paddingRight
     private int sectionEdgeVPaddingPx;
-    private List<Section> mSectionList = new ArrayList<>();
-    private BaseSectionQuickAdapter mAdapter;
-    private RecyclerView.AdapterDataObserver mDataObserver = new RecyclerView.AdapterDataObserver() {
-        @Override
-        public void onChanged() {
-            markSections();
-        }
-
-        @Override
-        public void onItemRangeChanged(int positionStart, int itemCount) {
-            markSections();
-        }
-
-        @Override
-        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
-            markSections();
-        }
-
-        @Override
-        public void onItemRangeInserted(int positionStart, int itemCount) {
-            markSections();
-        }
-
-        @Override
-        public void onItemRangeRemoved(int positionStart, int itemCount) {
-            markSections();
-        }
-
-        @Override
-        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            markSections();
-        }
-    };
 
 
     /**
@@ -110,21 +54,19 @@ public class GridSectionAverageGapItemDecoration extends RecyclerView.ItemDecora
         if (parent.getLayoutManager() instanceof GridLayoutManager && parent.getAdapter() instanceof BaseSectionQuickAdapter) {
             GridLayoutManager layoutManager = (GridLayoutManager) parent.getLayoutManager();
             BaseSectionQuickAdapter<SectionEntity, BaseViewHolder> adapter = (BaseSectionQuickAdapter) parent.getAdapter();
-            if (mAdapter != adapter) {
-                setUpWithAdapter(adapter);
-            }
             int spanCount = layoutManager.getSpanCount();
-            int position = parent.getChildAdapterPosition(view);
-            SectionEntity entity = adapter.getItem(position);
+            int position = parent.getChildAdapterPosition(view) - adapter.getDataOffset();
+            SectionEntity entity = position >= 0 && position < adapter.getAdapterCount() ? adapter.getItem(position) : null;
 
-            if (entity != null && entity.isHeader) {
+            if (entity == null || entity.isHeader) {
                 //不处理header
                 outRect.set(0, 0, 0, 0);
 //                Log.w("GridAverageGapItem", "pos=" + position + "," + outRect.toShortString());
                 return;
             }
 
-            Section section = findSectionLastItemPos(position);
+            SectionIndex sectionIndex = adapter.getSectionIndex();
+            int section = sectionIndex.getSectionForPosition(position);
 
             if (gapHSizePx < 0 || gapVSizePx < 0) {
                 transformGapDefinition(parent, spanCount);
@@ -133,7 +75,7 @@ public class GridSectionAverageGapItemDecoration extends RecyclerView.ItemDecora
             outRect.bottom = 0;
 
             //下面的visualPos为单个Section内的视觉Pos
-            int visualPos = position + 1 - section.startPos;
+            int visualPos = sectionIndex.getIndexInSection(position) + 1;
             if (visualPos % spanCount == 1) {
                 //第一列
                 outRect.left = sectionEdgeHPaddingPx;
@@ -152,7 +94,7 @@ public class GridSectionAverageGapItemDecoration extends RecyclerView.ItemDecora
                 outRect.top = sectionEdgeVPaddingPx;
             }
 
-            if (isLastRow(visualPos, spanCount, section.getCount())) {
+            if (isLastRow(visualPos, spanCount, sectionIndex.getSectionItemCount(section))) {
                 //最后一行
                 outRect.bottom = sectionEdgeVPaddingPx;
 //                Log.w("GridAverageGapItem", "last row pos=" + position);
@@ -163,45 +105,6 @@ public class GridSectionAverageGapItemDecoration extends RecyclerView.ItemDecora
         }
     }
 
-    private void setUpWithAdapter(BaseSectionQuickAdapter<SectionEntity, BaseViewHolder> adapter) {
-        if (mAdapter != null) {
-            mAdapter.unregisterAdapterDataObserver(mDataObserver);
-        }
-        mAdapter = adapter;
-        mAdapter.registerAdapterDataObserver(mDataObserver);
-        markSections();
-    }
-
-    private void markSections() {
-        if (mAdapter != null) {
-            BaseSectionQuickAdapter<SectionEntity, BaseViewHolder> adapter = mAdapter;
-            mSectionList.clear();
-            SectionEntity sectionEntity = null;
-            Section section = new Section();
-            for (int i = 0, size = adapter.getItemCount(); i < size; i++) {
-                sectionEntity = adapter.getItem(i);
-                if (sectionEntity != null && sectionEntity.isHeader) {
-                    //找到新Section起点
-                    if (section != null && i != 0) {
-                        //已经有待添加的section
-                        section.endPos = i - 1;
-                        mSectionList.add(section);
-                    }
-                    section = new Section();
-                    section.startPos = i + 1;
-                } else {
-                    section.endPos = i;
-                }
-            }
-            //处理末尾情况
-            if (!mSectionList.contains(section)) {
-                mSectionList.add(section);
-            }
-
-//            Log.w("GridAverageGapItem", "section list=" + mSectionList);
-        }
-    }
-
     private void transformGapDefinition(RecyclerView parent, int spanCount) {
         DisplayMetrics displayMetrics = new DisplayMetrics();
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
@@ -214,15 +117,6 @@ public class GridSectionAverageGapItemDecoration extends RecyclerView.ItemDecora
         eachItemHPaddingPx = (sectionEdgeHPaddingPx * 2 + gapHSizePx * (spanCount - 1)) / spanCount;
     }
 
-    private Section findSectionLastItemPos(int curPos) {
-        for (Section section : mSectionList) {
-            if (section.contains(curPos)) {
-                return section;
-            }
-        }
-        return null;
-    }
-
     private boolean isLastRow(int visualPos, int spanCount, int sectionItemCount) {
         int lastRowCount = sectionItemCount % spanCount;
         lastRowCount = lastRowCount == 0 ? spanCount : lastRowCount;
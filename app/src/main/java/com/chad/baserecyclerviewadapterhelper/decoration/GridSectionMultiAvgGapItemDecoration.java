@@ -4,13 +4,11 @@ import android.graphics.Rect;
 import android.os.Build;
 
 import android.util.DisplayMetrics;
-import android.util.Log;
 import android.util.LongSparseArray;
 import android.util.TypedValue;
 import android.view.View;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -18,9 +16,8 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.chad.library.adapter.base.BaseSectionMultiItemQuickAdapter;
 import com.chad.library.adapter.base.BaseViewHolder;
 import com.chad.library.adapter.base.entity.SectionMultiEntity;
+import com.chad.library.adapter.base.util.SectionIndex;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * 应用于RecyclerView的GridLayoutManager，水平方向上固定间距大小，从而使条目宽度自适应。<br>
@@ -35,27 +32,6 @@ import java.util.List;
 @RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN)
 public class GridSectionMultiAvgGapItemDecoration extends RecyclerView.ItemDecoration {
 
-    private class Section {
-        public int startPos = 0;
-        public int endPos = 0;
-
-        public int getCount() {
-            return endPos - startPos + 1;
-        }
-
-        public boolean contains(int pos) {
-            return pos >= startPos && pos <= endPos;
-        }
-
-        @Override
-        public String toString() {
-            return "Section{" +
-                    "startPos=" + startPos +
-                    ", endPos=" + endPos +
-                    '}';
-        }
-    }
-
     public static class SectionDecoration {
         private float gapHorizontalDp;
         private float gapVerticalDp;
@@ -112,43 +88,10 @@ public class GridSectionMultiAvgGapItemDecoration extends RecyclerView.ItemDecor
     }
 
 
-    private List<Section> mSectionList = new ArrayList<>();
     private LongSparseArray<SectionDecoration> sectionDecorationMap = new LongSparseArray<>();
-    private BaseSectionMultiItemQuickAdapter baseMultiItemQuickAdapter;
     //最后一个Section的BottomMargin，在计算最后一个seciton的底部间距时，会替换掉相应sectionDecoration中的定义
     private float mLastSectionBottomMarginDp = -1;
     private int mLastSectionBottomMarginPx = -1;
-    private RecyclerView.AdapterDataObserver mDataObserver = new RecyclerView.AdapterDataObserver() {
-        @Override
-        public void onChanged() {
-            markSectionsForMultiSectionAdapter();
-        }
-
-        @Override
-        public void onItemRangeChanged(int positionStart, int itemCount) {
-            markSectionsForMultiSectionAdapter();
-        }
-
-        @Override
-        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
-            markSectionsForMultiSectionAdapter();
-        }
-
-        @Override
-        public void onItemRangeInserted(int positionStart, int itemCount) {
-            markSectionsForMultiSectionAdapter();
-        }
-
-        @Override
-        public void onItemRangeRemoved(int positionStart, int itemCount) {
-            markSectionsForMultiSectionAdapter();
-        }
-
-        @Override
-        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            markSectionsForMultiSectionAdapter();
-        }
-    };
 
     public float getLastSectionBottomMarginDp() {
         return mLastSectionBottomMarginDp;
@@ -174,12 +117,9 @@ public class GridSectionMultiAvgGapItemDecoration extends RecyclerView.ItemDecor
         if (parent.getAdapter() instanceof BaseSectionMultiItemQuickAdapter) {
             GridLayoutManager layoutManager = (GridLayoutManager) parent.getLayoutManager();
             BaseSectionMultiItemQuickAdapter<SectionMultiEntity, BaseViewHolder> adapter = (BaseSectionMultiItemQuickAdapter) parent.getAdapter();
-            if (baseMultiItemQuickAdapter != adapter) {
-                setUpWithMultiItemAdapter(adapter);
-            }
             int spanCount = layoutManager.getSpanCount();
-            int position = parent.getChildAdapterPosition(view);
-            SectionMultiEntity entity = adapter.getItem(position);
+            int position = parent.getChildAdapterPosition(view) - adapter.getDataOffset();
+            SectionMultiEntity entity = position >= 0 && position < adapter.getAdapterCount() ? adapter.getItem(position) : null;
 
             SectionDecoration sectionDecoration = entity != null ? sectionDecorationMap.get(entity.getItemType()) : null;
             if ((entity != null && entity.isHeader) || sectionDecoration == null) {
@@ -192,13 +132,14 @@ public class GridSectionMultiAvgGapItemDecoration extends RecyclerView.ItemDecor
                 mLastSectionBottomMarginPx = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, mLastSectionBottomMarginDp, parent.getResources().getDisplayMetrics());
             }
             sectionDecoration.transformGapDefinition(parent,spanCount);
-            Section section = findSectionByPosition(position);
+            SectionIndex sectionIndex = adapter.getSectionIndex();
+            int section = sectionIndex.getSectionForPosition(position);
 
             outRect.top = sectionDecoration.gapVSizePx;
             outRect.bottom = 0;
 
             //下面的visualPos为单个Section内的视觉Pos
-            int visualPos = position + 1 - section.startPos;
+            int visualPos = sectionIndex.getIndexInSection(position) + 1;
             if (visualPos % spanCount == 1) {
                 //第一列
                 outRect.left = sectionDecoration.sectionEdgeHPaddingPx;
@@ -217,9 +158,9 @@ public class GridSectionMultiAvgGapItemDecoration extends RecyclerView.ItemDecor
                 outRect.top = sectionDecoration.sectionTopMarginPx;
             }
 
-            if (isLastRow(visualPos, spanCount, section.getCount())) {
+            if (isLastRow(visualPos, spanCount, sectionIndex.getSectionItemCount(section))) {
                 //最后一行
-                if(mLastSectionBottomMarginPx >= 0 && mSectionList.indexOf(section) == mSectionList.size()-1){
+                if(mLastSectionBottomMarginPx >= 0 && section == sectionIndex.getSectionCount() - 1){
                     //最后一个section
                     outRect.bottom = mLastSectionBottomMarginPx;
                 }else{
@@ -234,55 +175,6 @@ public class GridSectionMultiAvgGapItemDecoration extends RecyclerView.ItemDecor
 
     }
 
-    private void setUpWithMultiItemAdapter(BaseSectionMultiItemQuickAdapter<SectionMultiEntity, BaseViewHolder> adapter) {
-        if (baseMultiItemQuickAdapter != null) {
-            baseMultiItemQuickAdapter.unregisterAdapterDataObserver(mDataObserver);
-        }
-        baseMultiItemQuickAdapter = adapter;
-        baseMultiItemQuickAdapter.registerAdapterDataObserver(mDataObserver);
-        markSectionsForMultiSectionAdapter();
-    }
-
-    private void markSectionsForMultiSectionAdapter() {
-        if (baseMultiItemQuickAdapter != null) {
-            BaseSectionMultiItemQuickAdapter<SectionMultiEntity, BaseViewHolder> adapter = baseMultiItemQuickAdapter;
-            mSectionList.clear();
-            SectionMultiEntity sectionEntity = null;
-            Section section = new Section();
-            for (int i = 0, size = adapter.getItemCount(); i < size; i++) {
-                sectionEntity = adapter.getItem(i);
-                if (sectionEntity != null && sectionEntity.isHeader) {
-                    //找到新Section起点
-                    if (section != null && i != 0 && section.startPos != i) {
-                        //已经有待添加的section
-                        section.endPos = i - 1;
-                        mSectionList.add(section);
-                    }
-                    section = new Section();
-                    section.startPos = i + 1;
-                } else {
-                    section.endPos = i;
-                }
-            }
-            //处理末尾情况
-            if (!mSectionList.contains(section)) {
-                mSectionList.add(section);
-            }
-
-            Log.w("GridAverageGapItem", "section list=" + mSectionList);
-        }
-    }
-
-
-    private Section findSectionByPosition(int curPos) {
-        for (Section section : mSectionList) {
-            if (section.contains(curPos)) {
-                return section;
-            }
-        }
-        return null;
-    }
-
     private boolean isLastRow(int visualPos, int spanCount, int sectionItemCount) {
         int lastRowCount = sectionItemCount % spanCount;
         lastRowCount = lastRowCount == 0 ? spanCount : lastRowCount;
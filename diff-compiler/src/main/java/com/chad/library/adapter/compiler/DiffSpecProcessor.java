@@ -0,0 +1,459 @@
+package com.chad.library.adapter.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code <Class>_DiffSpec} for every class with {@code @DiffKey} fields. The spec
+ * compares the annotated fields one by one, nothing is looked up by reflection at runtime.
+ * <p>
+ * The annotations are matched by name, this module does not depend on the android library.
+ */
+public class DiffSpecProcessor extends AbstractProcessor {
+
+    private static final String PACKAGE = "com.chad.library.adapter.base.diff";
+    private static final String DIFF_KEY = PACKAGE + ".DiffKey";
+    private static final String DIFF_FIELD = PACKAGE + ".DiffField";
+    private static final String DIFF_SPEC = PACKAGE + ".DiffSpec";
+    private static final String NON_NULL = "androidx.annotation.NonNull";
+    private static final String SUFFIX = "_DiffSpec";
+    private static final int MAX_BITS = 64;
+
+    private Filer mFiler;
+    private Messager mMessager;
+    private Elements mElements;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mFiler = processingEnv.getFiler();
+        mMessager = processingEnv.getMessager();
+        mElements = processingEnv.getElementUtils();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        types.add(DIFF_KEY);
+        types.add(DIFF_FIELD);
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> types = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.FIELD) {
+                    continue;
+                }
+                TypeElement type = (TypeElement) element.getEnclosingElement();
+                if (!types.containsKey(type)) {
+                    types.put(type, new ArrayList<VariableElement>());
+                }
+            }
+        }
+        for (TypeElement type : types.keySet()) {
+            // the fields in declaration order, an element may carry both annotations
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (findAnnotation(field, DIFF_KEY) != null || findAnnotation(field, DIFF_FIELD) != null) {
+                    types.get(type).add(field);
+                }
+            }
+            generate(type, types.get(type));
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type, List<VariableElement> fields) {
+        if (!checkType(type)) {
+            return;
+        }
+        List<Property> keys = new ArrayList<>();
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                error(field, "@DiffKey and @DiffField fields must not be static");
+                return;
+            }
+            String access = accessor(type, field);
+            if (access == null) {
+                error(field, "%s is private and has no getter, make it package private or add get%s()",
+                        field.getSimpleName(), capitalize(field.getSimpleName().toString()));
+                return;
+            }
+            Property property = new Property(field, access);
+            if (findAnnotation(field, DIFF_KEY) != null) {
+                keys.add(property);
+            }
+            AnnotationMirror diffField = findAnnotation(field, DIFF_FIELD);
+            if (diffField != null) {
+                property.bit = bitOf(diffField);
+                properties.add(property);
+            }
+        }
+        if (keys.isEmpty()) {
+            error(type, "%s has @DiffField fields but no @DiffKey field", type.getSimpleName());
+            return;
+        }
+        if (!checkConstantNames(properties) || !assignBits(type, properties)) {
+            return;
+        }
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String specName = specName(type);
+        String itemType = type.getQualifiedName().toString();
+        try {
+            Writer writer = mFiler.createSourceFile(
+                    packageName.isEmpty() ? specName : packageName + "." + specName, type).openWriter();
+            try {
+                writer.write(source(packageName, specName, itemType, keys, properties));
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            error(type, "Could not write %s: %s", specName, e.getMessage());
+        }
+    }
+
+    private String source(String packageName, String specName, String itemType,
+                          List<Property> keys, List<Property> properties) {
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * Generated by DiffSpecProcessor from the @DiffKey and @DiffField fields of {@link ")
+                .append(itemType).append("}, do not edit.\n */\n");
+        sb.append("public final class ").append(specName).append(" implements ")
+                .append(DIFF_SPEC).append('<').append(itemType).append("> {\n");
+        for (Property property : properties) {
+            sb.append("    public static final long ").append(constantName(property.name()))
+                    .append(" = 1L << ").append(property.bit).append(";\n");
+        }
+        if (!properties.isEmpty()) {
+            sb.append('\n');
+        }
+
+        sb.append("    @Override\n    public boolean areItemsTheSame(").append(parameters(itemType)).append(") {\n");
+        sb.append("        return ");
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                sb.append("\n                && ");
+            }
+            sb.append(equalsExpression(keys.get(i), false));
+        }
+        sb.append(";\n    }\n\n");
+
+        sb.append("    @Override\n    public boolean areContentsTheSame(").append(parameters(itemType)).append(") {\n");
+        if (properties.isEmpty()) {
+            // nothing to compare field by field
+            sb.append("        return oldItem.equals(newItem);\n");
+        } else {
+            sb.append("        return ");
+            for (int i = 0; i < properties.size(); i++) {
+                if (i > 0) {
+                    sb.append("\n                && ");
+                }
+                sb.append(equalsExpression(properties.get(i), false));
+            }
+            sb.append(";\n");
+        }
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n    public long getChangeMask(").append(parameters(itemType)).append(") {\n");
+        sb.append("        long mask = 0;\n");
+        for (Property property : properties) {
+            sb.append("        if (").append(equalsExpression(property, true)).append(") {\n");
+            sb.append("            mask |= ").append(constantName(property.name())).append(";\n");
+            sb.append("        }\n");
+        }
+        sb.append("        return mask;\n    }\n\n");
+
+        sb.append("    private static boolean eq(Object a, Object b) {\n");
+        sb.append("        return a == b || a != null && a.equals(b);\n    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String parameters(String itemType) {
+        return "@" + NON_NULL + " " + itemType + " oldItem, @" + NON_NULL + " " + itemType + " newItem";
+    }
+
+    /**
+     * @param negate whether the expression tests for a change
+     */
+    private String equalsExpression(Property property, boolean negate) {
+        String a = "oldItem." + property.access;
+        String b = "newItem." + property.access;
+        String not = negate ? "!" : "";
+        TypeMirror type = property.field.asType();
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+            case LONG:
+                return a + (negate ? " != " : " == ") + b;
+            case FLOAT:
+                return "Float.compare(" + a + ", " + b + ")" + (negate ? " != 0" : " == 0");
+            case DOUBLE:
+                return "Double.compare(" + a + ", " + b + ")" + (negate ? " != 0" : " == 0");
+            case ARRAY:
+                return not + "java.util.Arrays.equals(" + a + ", " + b + ")";
+            default:
+                return not + "eq(" + a + ", " + b + ")";
+        }
+    }
+
+    /**
+     * @return the expression reading the field from an item, null if it is not accessible
+     */
+    private String accessor(TypeElement type, VariableElement field) {
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return field.getSimpleName().toString();
+        }
+        String name = field.getSimpleName().toString();
+        String capitalized = capitalize(name);
+        List<String> candidates = new ArrayList<>();
+        candidates.add("get" + capitalized);
+        if (field.asType().getKind() == TypeKind.BOOLEAN) {
+            candidates.add("is" + capitalized);
+            // kotlin names the getter of isFoo isFoo()
+            if (name.startsWith("is")) {
+                candidates.add(name);
+            }
+        }
+        candidates.add(name);
+        // the inherited methods as well, a getter may be declared by a superclass or an interface
+        List<ExecutableElement> methods = ElementFilter.methodsIn(mElements.getAllMembers(type));
+        for (String candidate : candidates) {
+            for (ExecutableElement method : methods) {
+                if (method.getSimpleName().contentEquals(candidate)
+                        && method.getParameters().isEmpty()
+                        && !method.getModifiers().contains(Modifier.STATIC)
+                        && isAccessible(type, method)) {
+                    return candidate + "()";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the generated spec, in the package of {@code type}, can call the method
+     */
+    private static boolean isAccessible(TypeElement type, ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        // package private and protected methods only from a class of the same package
+        return packageOf(method).equals(packageOf(type));
+    }
+
+    /**
+     * Two fields like userName and user_name would get the same constant.
+     */
+    private boolean checkConstantNames(List<Property> properties) {
+        Map<String, Property> names = new LinkedHashMap<>();
+        for (Property property : properties) {
+            String constant = constantName(property.name());
+            Property other = names.put(constant, property);
+            if (other != null) {
+                error(property.field, "%s and %s both get the mask constant %s, rename one of them",
+                        other.name(), property.name(), constant);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean checkType(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            error(type, "@DiffKey and @DiffField are only supported on class fields");
+            return false;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "%s is generic, DiffSpecs are only generated for non generic classes", type.getSimpleName());
+            return false;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "%s must not be private", t.getSimpleName());
+                return false;
+            }
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)) {
+                error(type, "%s must be a static nested class", t.getSimpleName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The explicit bits stay, the others take the free bits in declaration order.
+     */
+    private boolean assignBits(TypeElement type, List<Property> properties) {
+        long used = 0;
+        for (Property property : properties) {
+            if (property.bit < 0) {
+                continue;
+            }
+            if (property.bit >= MAX_BITS) {
+                error(property.field, "bit %d is out of range, use 0 to %d", property.bit, MAX_BITS - 1);
+                return false;
+            }
+            if ((used & (1L << property.bit)) != 0) {
+                error(property.field, "bit %d is used by another @DiffField", property.bit);
+                return false;
+            }
+            used |= 1L << property.bit;
+        }
+        int next = 0;
+        for (Property property : properties) {
+            if (property.bit >= 0) {
+                continue;
+            }
+            while (next < MAX_BITS && (used & (1L << next)) != 0) {
+                next++;
+            }
+            if (next == MAX_BITS) {
+                error(type, "%s has more than %d @DiffField fields", type.getSimpleName(), MAX_BITS);
+                return false;
+            }
+            property.bit = next;
+            used |= 1L << next;
+        }
+        return true;
+    }
+
+    private static int bitOf(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("bit")) {
+                return (Integer) entry.getValue().getValue();
+            }
+        }
+        return -1;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static PackageElement packageOf(Element element) {
+        while (!(element instanceof PackageElement)) {
+            element = element.getEnclosingElement();
+        }
+        return (PackageElement) element;
+    }
+
+    /**
+     * Outer.Inner becomes Outer_Inner_DiffSpec.
+     */
+    private static String specName(TypeElement type) {
+        List<String> names = new ArrayList<>();
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            names.add(e.getSimpleName().toString());
+        }
+        Collections.reverse(names);
+        StringBuilder sb = new StringBuilder();
+        for (String name : names) {
+            sb.append(name).append('_');
+        }
+        return sb.append(SUFFIX.substring(1)).toString();
+    }
+
+    /**
+     * mTitle and title become TITLE, userName becomes USER_NAME.
+     */
+    private static String constantName(String fieldName) {
+        String name = fieldName;
+        if (name.length() > 1 && name.charAt(0) == 'm' && Character.isUpperCase(name.charAt(1))) {
+            name = name.substring(1);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))) {
+                sb.append('_');
+            }
+            sb.append(c);
+        }
+        return sb.toString().toUpperCase(Locale.US);
+    }
+
+    private static String capitalize(String name) {
+        if (name.length() > 1 && name.charAt(0) == 'm' && Character.isUpperCase(name.charAt(1))) {
+            return name.substring(1);
+        }
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void error(Element element, String format, Object... args) {
+        mMessager.printMessage(Diagnostic.Kind.ERROR, String.format(Locale.US, format, args), element);
+    }
+
+    private static final class Property {
+        final VariableElement field;
+        /**
+         * the field name or the getter call
+         */
+        final String access;
+        int bit = -1;
+
+        Property(VariableElement field, String access) {
+            this.field = field;
+            this.access = access;
+        }
+
+        String name() {
+            return field.getSimpleName().toString();
+        }
+    }
+}
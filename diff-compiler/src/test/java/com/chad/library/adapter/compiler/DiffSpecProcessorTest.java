@@ -0,0 +1,347 @@
+package com.chad.library.adapter.compiler;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the processor in javac on small sources and checks the errors or the behavior of the
+ * generated specs. The annotations and DiffSpec are given as sources, like the library declares them.
+ */
+public class DiffSpecProcessorTest {
+
+    private static final String[] LIBRARY = {
+            "com.chad.library.adapter.base.diff.DiffKey",
+            "package com.chad.library.adapter.base.diff;\n"
+                    + "public @interface DiffKey {}",
+            "com.chad.library.adapter.base.diff.DiffField",
+            "package com.chad.library.adapter.base.diff;\n"
+                    + "public @interface DiffField { int bit() default -1; }",
+            "com.chad.library.adapter.base.diff.DiffSpec",
+            "package com.chad.library.adapter.base.diff;\n"
+                    + "public interface DiffSpec<T> {\n"
+                    + "    boolean areItemsTheSame(T oldItem, T newItem);\n"
+                    + "    boolean areContentsTheSame(T oldItem, T newItem);\n"
+                    + "    long getChangeMask(T oldItem, T newItem);\n"
+                    + "}",
+            "androidx.annotation.NonNull",
+            "package androidx.annotation;\n"
+                    + "public @interface NonNull {}",
+    };
+
+    private static final String IMPORTS = "import com.chad.library.adapter.base.diff.DiffField;\n"
+            + "import com.chad.library.adapter.base.diff.DiffKey;\n";
+
+    @Test
+    public void privateFieldsAreReadThroughGetAndIsGetters() throws Exception {
+        Compilation compilation = compile("demo.User", "package demo;\n" + IMPORTS
+                + "public class User {\n"
+                + "    @DiffKey private long id;\n"
+                + "    @DiffField private String mName;\n"
+                + "    @DiffField private boolean online;\n"
+                + "    public User(long id, String name, boolean online) {\n"
+                + "        this.id = id; this.mName = name; this.online = online;\n"
+                + "    }\n"
+                + "    public long getId() { return id; }\n"
+                + "    public String getName() { return mName; }\n"
+                + "    public boolean isOnline() { return online; }\n"
+                + "}");
+        compilation.assertSuccess();
+        String source = compilation.generatedSource("demo.User_DiffSpec");
+        assertTrue(source, source.contains("oldItem.getId()"));
+        assertTrue(source, source.contains("oldItem.getName()"));
+        assertTrue(source, source.contains("oldItem.isOnline()"));
+
+        Spec spec = compilation.spec("demo.User");
+        Object a = compilation.create("demo.User", 1L, "a", true);
+        assertTrue(spec.areItemsTheSame(a, compilation.create("demo.User", 1L, "b", false)));
+        assertFalse(spec.areItemsTheSame(a, compilation.create("demo.User", 2L, "a", true)));
+        assertEquals(spec.constant("NAME"), spec.getChangeMask(a, compilation.create("demo.User", 1L, "b", true)));
+        assertEquals(spec.constant("ONLINE"), spec.getChangeMask(a, compilation.create("demo.User", 1L, "a", false)));
+        assertEquals(0L, spec.getChangeMask(a, compilation.create("demo.User", 1L, "a", true)));
+    }
+
+    @Test
+    public void privateGettersAreNotUsed() {
+        Compilation compilation = compile("demo.User", "package demo;\n" + IMPORTS
+                + "public class User {\n"
+                + "    @DiffKey long id;\n"
+                + "    @DiffField private String name;\n"
+                + "    private String getName() { return name; }\n"
+                + "}");
+        compilation.assertError("name is private and has no getter, make it package private or add getName()");
+    }
+
+    @Test
+    public void floatsDoublesAndArraysCompareByValue() throws Exception {
+        Compilation compilation = compile("demo.Point", "package demo;\n" + IMPORTS
+                + "public class Point {\n"
+                + "    @DiffKey int id;\n"
+                + "    @DiffField float x;\n"
+                + "    @DiffField double y;\n"
+                + "    @DiffField int[] tags;\n"
+                + "    public Point(int id, float x, double y, int[] tags) {\n"
+                + "        this.id = id; this.x = x; this.y = y; this.tags = tags;\n"
+                + "    }\n"
+                + "}");
+        compilation.assertSuccess();
+        Spec spec = compilation.spec("demo.Point");
+        Object nan = compilation.create("demo.Point", 1, Float.NaN, Double.NaN, new int[]{1, 2});
+        Object sameNan = compilation.create("demo.Point", 1, Float.NaN, Double.NaN, new int[]{1, 2});
+        assertTrue(spec.areContentsTheSame(nan, sameNan));
+        assertEquals(0L, spec.getChangeMask(nan, sameNan));
+
+        Object zero = compilation.create("demo.Point", 1, 0f, 0d, new int[]{1, 2});
+        Object negativeZero = compilation.create("demo.Point", 1, -0f, -0d, new int[]{1, 3});
+        assertEquals(spec.constant("X") | spec.constant("Y") | spec.constant("TAGS"),
+                spec.getChangeMask(zero, negativeZero));
+    }
+
+    @Test
+    public void nestedClassesGetTheOuterNameInTheirSpec() throws Exception {
+        Compilation compilation = compile("demo.Feed", "package demo;\n" + IMPORTS
+                + "public class Feed {\n"
+                + "    public static class Entry {\n"
+                + "        @DiffKey String id;\n"
+                + "        @DiffField String text;\n"
+                + "        public Entry(String id, String text) { this.id = id; this.text = text; }\n"
+                + "    }\n"
+                + "}");
+        compilation.assertSuccess();
+        Spec spec = new Spec(compilation.loadClass("demo.Feed_Entry_DiffSpec"));
+        Object a = compilation.create("demo.Feed$Entry", "1", "a");
+        assertEquals(spec.constant("TEXT"), spec.getChangeMask(a, compilation.create("demo.Feed$Entry", "1", "b")));
+    }
+
+    @Test
+    public void innerClassesAreRejected() {
+        Compilation compilation = compile("demo.Feed", "package demo;\n" + IMPORTS
+                + "public class Feed {\n"
+                + "    public class Entry {\n"
+                + "        @DiffKey String id;\n"
+                + "    }\n"
+                + "}");
+        compilation.assertError("Entry must be a static nested class");
+    }
+
+    @Test
+    public void gettersOfSuperclassesAreFound() throws Exception {
+        Compilation compilation = compile(
+                "demo.base.Titled", "package demo.base;\n"
+                        + "public abstract class Titled {\n"
+                        + "    public String getTitle() { return title(); }\n"
+                        + "    protected abstract String title();\n"
+                        + "}",
+                "demo.Article", "package demo;\n" + IMPORTS
+                        + "public class Article extends demo.base.Titled {\n"
+                        + "    @DiffKey int id;\n"
+                        + "    @DiffField private String title;\n"
+                        + "    public Article(int id, String title) { this.id = id; this.title = title; }\n"
+                        + "    @Override protected String title() { return title; }\n"
+                        + "}");
+        compilation.assertSuccess();
+        assertTrue(compilation.generatedSource("demo.Article_DiffSpec").contains("oldItem.getTitle()"));
+        Spec spec = compilation.spec("demo.Article");
+        assertEquals(spec.constant("TITLE"), spec.getChangeMask(
+                compilation.create("demo.Article", 1, "a"), compilation.create("demo.Article", 1, "b")));
+    }
+
+    @Test
+    public void packagePrivateGettersOfOtherPackagesAreNotUsed() {
+        Compilation compilation = compile(
+                "demo.base.Titled", "package demo.base;\n"
+                        + "public abstract class Titled {\n"
+                        + "    String getTitle() { return null; }\n"
+                        + "}",
+                "demo.Article", "package demo;\n" + IMPORTS
+                        + "public class Article extends demo.base.Titled {\n"
+                        + "    @DiffKey int id;\n"
+                        + "    @DiffField private String title;\n"
+                        + "}");
+        compilation.assertError("title is private and has no getter");
+    }
+
+    @Test
+    public void collidingConstantNamesAreAnError() {
+        Compilation compilation = compile("demo.User", "package demo;\n" + IMPORTS
+                + "public class User {\n"
+                + "    @DiffKey long id;\n"
+                + "    @DiffField String userName;\n"
+                + "    @DiffField String user_name;\n"
+                + "}");
+        compilation.assertError("userName and user_name both get the mask constant USER_NAME");
+    }
+
+    @Test
+    public void explicitBitsAreKeptAndCheckedForDuplicates() throws Exception {
+        Compilation compilation = compile("demo.Row", "package demo;\n" + IMPORTS
+                + "public class Row {\n"
+                + "    @DiffKey long id;\n"
+                + "    @DiffField String a;\n"
+                + "    @DiffField(bit = 0) String b;\n"
+                + "}");
+        compilation.assertSuccess();
+        Spec spec = compilation.spec("demo.Row");
+        assertEquals(1L, spec.constant("B"));
+        assertEquals(2L, spec.constant("A"));
+
+        compile("demo.Row", "package demo;\n" + IMPORTS
+                + "public class Row {\n"
+                + "    @DiffKey long id;\n"
+                + "    @DiffField(bit = 3) String a;\n"
+                + "    @DiffField(bit = 3) String b;\n"
+                + "}").assertError("bit 3 is used by another @DiffField");
+    }
+
+    /**
+     * @param sources pairs of the qualified name and the source of a class
+     */
+    private static Compilation compile(String... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.US, Charset.forName("UTF-8"));
+        File output;
+        try {
+            output = Files.createTempDirectory("diff-spec").toFile();
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(output));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        List<JavaFileObject> files = new ArrayList<>();
+        List<String> all = new ArrayList<>(Arrays.asList(LIBRARY));
+        all.addAll(Arrays.asList(sources));
+        for (int i = 0; i < all.size(); i += 2) {
+            files.add(new Source(all.get(i), all.get(i + 1)));
+        }
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                Collections.singletonList("-Xlint:none"), null, files);
+        task.setProcessors(Collections.singletonList(new DiffSpecProcessor()));
+        boolean success = task.call();
+        return new Compilation(success, diagnostics.getDiagnostics(), output);
+    }
+
+    private static final class Source extends SimpleJavaFileObject {
+        private final String mCode;
+
+        Source(String qualifiedName, String code) {
+            super(URI.create("string:///" + qualifiedName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            mCode = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return mCode;
+        }
+    }
+
+    private static final class Compilation {
+        private final boolean mSuccess;
+        private final List<Diagnostic<? extends JavaFileObject>> mDiagnostics;
+        private final File mOutput;
+        private URLClassLoader mClassLoader;
+
+        Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, File output) {
+            mSuccess = success;
+            mDiagnostics = diagnostics;
+            mOutput = output;
+        }
+
+        void assertSuccess() {
+            assertTrue(mDiagnostics.toString(), mSuccess);
+        }
+
+        void assertError(String message) {
+            assertFalse("compiled without errors", mSuccess);
+            for (Diagnostic<? extends JavaFileObject> diagnostic : mDiagnostics) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR
+                        && diagnostic.getMessage(Locale.US).contains(message)) {
+                    return;
+                }
+            }
+            throw new AssertionError("no error \"" + message + "\" in " + mDiagnostics);
+        }
+
+        String generatedSource(String qualifiedName) throws IOException {
+            File file = new File(mOutput, qualifiedName.replace('.', File.separatorChar) + ".java");
+            return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+        }
+
+        Class<?> loadClass(String name) throws Exception {
+            if (mClassLoader == null) {
+                mClassLoader = new URLClassLoader(new URL[]{mOutput.toURI().toURL()}, getClass().getClassLoader());
+            }
+            return mClassLoader.loadClass(name);
+        }
+
+        Spec spec(String itemClass) throws Exception {
+            return new Spec(loadClass(itemClass + "_DiffSpec"));
+        }
+
+        Object create(String className, Object... args) throws Exception {
+            Class<?> type = loadClass(className);
+            return type.getConstructors()[0].newInstance(args);
+        }
+    }
+
+    private static final class Spec {
+        private final Class<?> mType;
+        private final Object mSpec;
+
+        Spec(Class<?> type) throws Exception {
+            mType = type;
+            mSpec = type.getConstructor().newInstance();
+        }
+
+        long constant(String name) throws Exception {
+            return mType.getField(name).getLong(null);
+        }
+
+        boolean areItemsTheSame(Object oldItem, Object newItem) throws Exception {
+            return (Boolean) method("areItemsTheSame").invoke(mSpec, oldItem, newItem);
+        }
+
+        boolean areContentsTheSame(Object oldItem, Object newItem) throws Exception {
+            return (Boolean) method("areContentsTheSame").invoke(mSpec, oldItem, newItem);
+        }
+
+        long getChangeMask(Object oldItem, Object newItem) throws Exception {
+            return (Long) method("getChangeMask").invoke(mSpec, oldItem, newItem);
+        }
+
+        private Method method(String name) {
+            for (Method method : mType.getMethods()) {
+                // the bridge method takes Object
+                if (method.getName().equals(name) && !method.isBridge()) {
+                    return method;
+                }
+            }
+            throw new AssertionError(name);
+        }
+    }
+}
@@ -1,46 +1,191 @@
 package com.chad.library.adapter.base;
 
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.BatchingListUpdateCallback;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
+
+/**
+ * Translates the data positions of the notify calls of a {@link BaseQuickAdapter} into adapter
+ * positions and forwards them to the observers registered on the adapter (the RecyclerView).
+ * <p>
+ * The offset of the data rows is read from the adapter when a call is forwarded, so adding or
+ * removing a header, footer or the empty view in between is always taken into account.
+ * Calls made between {@link #beginBatch()} and {@link #endBatch()} are coalesced, consecutive
+ * inserts, removes or changes of adjacent ranges reach the observers as one call.
+ * <p>
+ * 数据位置到 adapter 位置的实时转换，并可合并连续的通知
+ */
 public class AdapterDataObserverProxy extends RecyclerView.AdapterDataObserver {
 
-    RecyclerView.AdapterDataObserver adapterDataObserver;
+    private final BaseQuickAdapter mAdapter;
+    private final ArrayList<RecyclerView.AdapterDataObserver> mObservers = new ArrayList<>();
+    private final ListUpdateCallback mDispatcher = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position,int count) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeInserted(position,count);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position,int count) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeRemoved(position,count);
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition,int toPosition) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeMoved(fromPosition,toPosition,1);
+            }
+        }
+
+        @Override
+        public void onChanged(int position,int count,@Nullable Object payload) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeChanged(position,count,payload);
+            }
+        }
+    };
+    private final BatchingListUpdateCallback mBatching = new BatchingListUpdateCallback(mDispatcher);
+    private int mBatchDepth;
+    /**
+     * whether the empty view was shown when the observers were notified last
+     */
+    private boolean mEmptyShown;
+
+    public AdapterDataObserverProxy(BaseQuickAdapter adapter) {
+        mAdapter = adapter;
+    }
+
+    void addObserver(RecyclerView.AdapterDataObserver observer) {
+        if (mObservers.contains(observer)) {
+            throw new IllegalStateException("Observer " + observer + " is already registered.");
+        }
+        if (mObservers.isEmpty()) {
+            mEmptyShown = isEmptyShown();
+        }
+        mObservers.add(observer);
+    }
+
+    boolean removeObserver(RecyclerView.AdapterDataObserver observer) {
+        return mObservers.remove(observer);
+    }
 
-    int headerCount;
+    boolean hasObservers() {
+        return !mObservers.isEmpty();
+    }
 
-    public AdapterDataObserverProxy(RecyclerView.AdapterDataObserver adapterDataObserver,int headerCount) {
-        this.adapterDataObserver = adapterDataObserver;
-        this.headerCount = headerCount;
+    /**
+     * @return the adapter position of the first data row
+     */
+    public int getDataOffset() {
+        return mAdapter.getSegments().dataStart;
+    }
+
+    /**
+     * Hold back the calls until {@link #endBatch()} so that adjacent ones can be merged.
+     * Batches may be nested, the calls are forwarded when the outermost one ends.
+     */
+    public void beginBatch() {
+        mBatchDepth++;
+    }
+
+    public void endBatch() {
+        if (mBatchDepth > 0 && --mBatchDepth == 0) {
+            mBatching.dispatchLastEvent();
+        }
     }
 
     @Override
     public void onChanged() {
-        adapterDataObserver.onChanged();
+        mBatching.dispatchLastEvent();
+        mEmptyShown = isEmptyShown();
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onChanged();
+        }
     }
 
     @Override
     public void onItemRangeChanged(int positionStart,int itemCount) {
-        adapterDataObserver.onItemRangeChanged(positionStart + headerCount,itemCount);
+        onItemRangeChanged(positionStart,itemCount,null);
     }
 
     @Override
     public void onItemRangeChanged(int positionStart,int itemCount,@Nullable Object payload) {
-        adapterDataObserver.onItemRangeChanged(positionStart + headerCount,itemCount,payload);
+        if (!checkEmptyState()) {
+            target().onChanged(positionStart + getDataOffset(),itemCount,payload);
+        }
     }
 
     @Override
     public void onItemRangeInserted(int positionStart,int itemCount) {
-        adapterDataObserver.onItemRangeInserted(positionStart + headerCount,itemCount);
+        if (!checkEmptyState()) {
+            target().onInserted(positionStart + getDataOffset(),itemCount);
+        }
     }
 
     @Override
     public void onItemRangeRemoved(int positionStart,int itemCount) {
-        adapterDataObserver.onItemRangeRemoved(positionStart + headerCount,itemCount);
+        if (!checkEmptyState()) {
+            target().onRemoved(positionStart + getDataOffset(),itemCount);
+        }
     }
 
     @Override
     public void onItemRangeMoved(int fromPosition,int toPosition,int itemCount) {
-        super.onItemRangeMoved(fromPosition + headerCount,toPosition + headerCount,itemCount);
+        if (!checkEmptyState()) {
+            int offset = getDataOffset();
+            // itemCount is always 1 for RecyclerView
+            for (int i = 0; i < itemCount; i++) {
+                target().onMoved(fromPosition + offset + i,toPosition + offset + i);
+            }
+        }
+    }
+
+    /**
+     * Forward calls about rows outside of the data (header, footer, empty and load more),
+     * the positions are adapter positions already.
+     */
+    void dispatchFixedItemRangeChanged(int position,int itemCount) {
+        mEmptyShown = isEmptyShown();
+        target().onChanged(position,itemCount,null);
+    }
+
+    void dispatchFixedItemRangeInserted(int position,int itemCount) {
+        mEmptyShown = isEmptyShown();
+        target().onInserted(position,itemCount);
+    }
+
+    void dispatchFixedItemRangeRemoved(int position,int itemCount) {
+        mEmptyShown = isEmptyShown();
+        target().onRemoved(position,itemCount);
+    }
+
+    private ListUpdateCallback target() {
+        return mBatchDepth > 0 ? mBatching : mDispatcher;
+    }
+
+    /**
+     * The empty view replaces the data rows, a change of the data that hides or shows it can not
+     * be expressed by the data positions alone, so the observers get a full change instead.
+     *
+     * @return true if the call was turned into a full change
+     */
+    private boolean checkEmptyState() {
+        boolean emptyShown = isEmptyShown();
+        if (emptyShown == mEmptyShown && !emptyShown) {
+            return false;
+        }
+        onChanged();
+        return true;
+    }
+
+    private boolean isEmptyShown() {
+        return mAdapter.getSegments().emptyCount == 1;
     }
-}
\ No newline at end of file
+}
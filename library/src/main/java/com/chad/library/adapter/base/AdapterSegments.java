@@ -0,0 +1,64 @@
+package com.chad.library.adapter.base;
+
+/**
+ * Offsets of the header, empty, data, footer and load more rows of a {@link BaseQuickAdapter}.
+ * <p>
+ * The rows are always laid out in this order, a segment that is not shown has a count of 0.
+ * The table is rebuilt by the adapter only when one of its inputs changed, so every position
+ * mapping is a few int comparisons without touching any View.
+ */
+final class AdapterSegments {
+
+    /**
+     * raw counts as returned by the adapter, whether the rows are shown or not
+     */
+    int headerLayoutCount;
+    int footerLayoutCount;
+    int emptyViewCount;
+    int loadMoreViewCount;
+    /**
+     * the data size this table was built for
+     */
+    int adapterCount;
+
+    int headerCount;
+    int emptyStart;
+    int emptyCount;
+    int dataStart;
+    int dataCount;
+    int footerStart;
+    int footerCount;
+    int loadMoreStart;
+    int loadMoreCount;
+    int itemCount;
+
+    void set(int headerLayoutCount,int footerLayoutCount,int emptyViewCount,int loadMoreViewCount,int adapterCount,boolean headAndEmpty,boolean footAndEmpty) {
+        this.headerLayoutCount = headerLayoutCount;
+        this.footerLayoutCount = footerLayoutCount;
+        this.emptyViewCount = emptyViewCount;
+        this.loadMoreViewCount = loadMoreViewCount;
+        this.adapterCount = adapterCount;
+        if (emptyViewCount == 1) {
+            headerCount = headAndEmpty ? headerLayoutCount : 0;
+            emptyCount = 1;
+            dataCount = 0;
+            footerCount = footAndEmpty ? footerLayoutCount : 0;
+            loadMoreCount = 0;
+        } else {
+            headerCount = headerLayoutCount;
+            emptyCount = 0;
+            dataCount = adapterCount;
+            footerCount = footerLayoutCount;
+            loadMoreCount = loadMoreViewCount;
+        }
+        emptyStart = headerCount;
+        dataStart = emptyStart + emptyCount;
+        footerStart = dataStart + dataCount;
+        loadMoreStart = footerStart + footerCount;
+        itemCount = loadMoreStart + loadMoreCount;
+    }
+
+    boolean isDataPosition(int position) {
+        return position >= dataStart && position < footerStart;
+    }
+}
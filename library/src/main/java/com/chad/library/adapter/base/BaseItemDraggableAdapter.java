@@ -2,6 +2,7 @@ package com.chad.library.adapter.base;
 
 import android.graphics.Canvas;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.view.MotionEventCompat;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.ItemTouchHelper;
@@ -11,7 +12,6 @@ import com.chad.library.R;
 import com.chad.library.adapter.base.callback.ItemDragAndSwipeCallback;
 import com.chad.library.adapter.base.listener.OnItemDragListener;
 import com.chad.library.adapter.base.listener.OnItemSwipeListener;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -31,6 +31,9 @@ public abstract class BaseItemDraggableAdapter<T, K extends BaseViewHolder> exte
     protected View.OnTouchListener mOnToggleViewTouchListener;
     protected View.OnLongClickListener mOnToggleViewLongClickListener;
 
+    private final DragGesture mDragGesture = new DragGesture();
+    private DragMoveLog<T> mDragMoveLog;
+
     private static final String ERROR_NOT_SAME_ITEMTOUCHHELPER = "Item drag and item swipe should pass the same ItemTouchHelper";
 
 
@@ -55,8 +58,8 @@ public abstract class BaseItemDraggableAdapter<T, K extends BaseViewHolder> exte
         super.onBindViewHolder(holder, position);
         int viewType = holder.getItemViewType();
 
-        if (mItemTouchHelper != null && itemDragEnabled && viewType != LOADING_VIEW && viewType != HEADER_VIEW
-            && viewType != EMPTY_VIEW && viewType != FOOTER_VIEW) {
+        if (mItemTouchHelper != null && itemDragEnabled && viewType != LOADING_VIEW && !isHeaderViewType(viewType)
+            && viewType != EMPTY_VIEW && !isFooterViewType(viewType)) {
             if (hasToggleView()) {
                 View toggleView = holder.getView(mToggleViewId);
                 if (toggleView != null) {
@@ -197,10 +200,11 @@ public abstract class BaseItemDraggableAdapter<T, K extends BaseViewHolder> exte
     }
 
     public int getViewHolderPosition(RecyclerView.ViewHolder viewHolder) {
-        return  viewHolder.getAdapterPosition()-mDataObserverProxy.headerCount;
+        return viewHolder.getAdapterPosition() - getDataOffset();
     }
 
     public void onItemDragStart(RecyclerView.ViewHolder viewHolder) {
+        mDragGesture.start(getViewHolderPosition(viewHolder));
         if (mOnItemDragListener != null && itemDragEnabled) {
             mOnItemDragListener.onItemDragStart(viewHolder, getViewHolderPosition(viewHolder));
         }
@@ -211,15 +215,8 @@ public abstract class BaseItemDraggableAdapter<T, K extends BaseViewHolder> exte
         int to = getViewHolderPosition(target);
 
         if (inRange(from) && inRange(to)) {
-            if (from < to) {
-                for (int i = from; i < to; i++) {
-                    Collections.swap(mData, i, i + 1);
-                }
-            } else {
-                for (int i = from; i > to; i--) {
-                    Collections.swap(mData, i, i - 1);
-                }
-            }
+            DragGesture.move(mData, from, to);
+            mDragGesture.onMoved(from, to);
 
             notifyMoved(source.getAdapterPosition(),target.getAdapterPosition());
             //notifyItemMoved(source.getAdapterPosition(), target.getAdapterPosition());
@@ -233,18 +230,9 @@ public abstract class BaseItemDraggableAdapter<T, K extends BaseViewHolder> exte
     public void onItemDragMoving(int from, int to) {
 
         if (inRange(from) && inRange(to)) {
-            if (from < to) {
-                for (int i = from; i < to; i++) {
-                    Collections.swap(mData, i, i + 1);
-                }
-            } else {
-                for (int i = from; i > to; i--) {
-                    Collections.swap(mData, i, i - 1);
-                }
-            }
-            //notifyItemMoved(source.getAdapterPosition(), target.getAdapterPosition());
-            notifyMoved(from, to);
-            //notifyDataSetChanged();
+            DragGesture.move(mData, from, to);
+            mDragGesture.onMoved(from, to);
+            notifyItemMoved(from, to);
         }
 
         if (mOnItemDragListener != null && itemDragEnabled) {
@@ -253,11 +241,57 @@ public abstract class BaseItemDraggableAdapter<T, K extends BaseViewHolder> exte
     }
 
     public void onItemDragEnd(RecyclerView.ViewHolder viewHolder) {
+        mDragGesture.end(viewHolder, itemDragEnabled ? mOnItemDragListener : null, mData, mDragMoveLog);
         if (mOnItemDragListener != null && itemDragEnabled) {
             mOnItemDragListener.onItemDragEnd(viewHolder, getViewHolderPosition(viewHolder));
         }
     }
 
+    /**
+     * Record the net move of every drag gesture, see {@link DragMoveLog}.
+     *
+     * @param log null stops recording
+     */
+    public void setDragMoveLog(@Nullable DragMoveLog<T> log) {
+        mDragMoveLog = log;
+    }
+
+    @Nullable
+    public DragMoveLog<T> getDragMoveLog() {
+        return mDragMoveLog;
+    }
+
+    /**
+     * Keep swiped items as hidden tombstones and remove them together once no item was swiped
+     * for {@code quietPeriodMillis}, an undo in between restores the row in place.
+     * See {@link SwipeDismissBuffer}.
+     *
+     * @throws IllegalStateException if the adapter uses a PagedList
+     */
+    public SwipeDismissBuffer enableSwipeDismissBuffer(long quietPeriodMillis) {
+        if (mSwipeDismissBuffer == null) {
+            mSwipeDismissBuffer = new SwipeDismissBuffer(this, quietPeriodMillis);
+        } else {
+            mSwipeDismissBuffer.setQuietPeriod(quietPeriodMillis);
+        }
+        return mSwipeDismissBuffer;
+    }
+
+    /**
+     * Remove the pending tombstones now, swiped items are removed right away again.
+     */
+    public void disableSwipeDismissBuffer() {
+        if (mSwipeDismissBuffer != null) {
+            mSwipeDismissBuffer.commit();
+            mSwipeDismissBuffer = null;
+        }
+    }
+
+    @Nullable
+    public SwipeDismissBuffer getSwipeDismissBuffer() {
+        return mSwipeDismissBuffer;
+    }
+
     public void setOnItemSwipeListener(OnItemSwipeListener listener) {
         mOnItemSwipeListener = listener;
     }
@@ -277,8 +311,12 @@ public abstract class BaseItemDraggableAdapter<T, K extends BaseViewHolder> exte
     public void onItemSwiped(RecyclerView.ViewHolder viewHolder) {
         final int pos = getViewHolderPosition(viewHolder);
         if (inRange(pos)) {
-            mData.remove(pos);
-            notifyItemRemoved(viewHolder.getAdapterPosition());
+            if (mSwipeDismissBuffer != null) {
+                mSwipeDismissBuffer.dismiss(pos);
+            } else {
+                mData.remove(pos);
+                notifyRemoved(viewHolder.getAdapterPosition());
+            }
 
             if (mOnItemSwipeListener != null && itemSwipeEnabled) {
                 mOnItemSwipeListener.onItemSwiped(viewHolder, pos);
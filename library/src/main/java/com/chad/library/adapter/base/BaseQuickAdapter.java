@@ -17,9 +17,11 @@ package com.chad.library.adapter.base;
 
 import android.animation.Animator;
 import android.content.Context;
+import android.os.AsyncTask;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 import android.widget.FrameLayout;
@@ -35,19 +37,28 @@ import androidx.paging.PagedListAdapter;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 import com.chad.library.adapter.base.animation.AlphaInAnimation;
 import com.chad.library.adapter.base.animation.BaseAnimation;
+import com.chad.library.adapter.base.animation.ItemAnimation;
 import com.chad.library.adapter.base.animation.ScaleInAnimation;
 import com.chad.library.adapter.base.animation.SlideInBottomAnimation;
 import com.chad.library.adapter.base.animation.SlideInLeftAnimation;
 import com.chad.library.adapter.base.animation.SlideInRightAnimation;
 import com.chad.library.adapter.base.diff.BaseQuickAdapterListUpdateCallback;
 import com.chad.library.adapter.base.diff.BaseQuickDiffCallback;
+import com.chad.library.adapter.base.diff.ChangeMasks;
+import com.chad.library.adapter.base.diff.ChunkedDiff;
+import com.chad.library.adapter.base.diff.DiffSpecItemCallback;
 import com.chad.library.adapter.base.entity.IExpandable;
 import com.chad.library.adapter.base.loadmore.LoadMoreView;
 import com.chad.library.adapter.base.loadmore.SimpleLoadMoreView;
+import com.chad.library.adapter.base.metrics.AdapterMetrics;
+import com.chad.library.adapter.base.util.AdapterTrace;
+import com.chad.library.adapter.base.util.CachedSpanSizeLookup;
+import com.chad.library.adapter.base.util.ItemTypeCache;
 import com.chad.library.adapter.base.util.MultiTypeDelegate;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -59,6 +70,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 import kotlin.Unit;
 import kotlin.jvm.functions.Function0;
 
@@ -112,17 +124,88 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
 
     protected BaseAnimation mCustomAnimation;
     protected BaseAnimation mSelectAnimation = new AlphaInAnimation();
+    private final ItemAnimationController mAnimationController = new ItemAnimationController();
+    /**
+     * tombstones of swiped items, null while swiped items are removed right away
+     */
+    @Nullable
+    SwipeDismissBuffer mSwipeDismissBuffer;
+    @Nullable
+    private PrepareStage<T> mPrepareStage;
+    /**
+     * the rows to prepare once the diff that is dispatched has set the new list, null outside of a dispatch
+     */
+    @Nullable
+    private DeferredPrepares mDeferredPrepares;
+    private int mPrefetchDistance;
+    private int mLastBindPosition = RecyclerView.NO_POSITION;
+    private final ChangeMasks mChangeMasks = new ChangeMasks();
+    /**
+     * the RecyclerView the adapter was attached to last, the change masks are dropped after its frames
+     */
+    @Nullable
+    private RecyclerView mAttachedRecyclerView;
+    private boolean mDropChangeMasksPending;
+    private final ViewTreeObserver.OnPreDrawListener mDropChangeMasks = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            // the layout pass of this frame bound the rows that were notified with a mask, masks left
+            // are of rows off screen or removed. A later bind with the mask payload binds in full.
+            removeDropChangeMasks();
+            mChangeMasks.clear();
+            return true;
+        }
+    };
+    /**
+     * the payloads of a bind other than {@link ChangeMasks#PAYLOAD}, reused
+     */
+    private final ArrayList<Object> mOtherPayloads = new ArrayList<>();
+    @Nullable
+    private AdapterMetrics mMetrics;
+    /**
+     * System.nanoTime() of the pending load more request, 0 if there is none
+     */
+    private long mLoadMoreRequestNanos;
+    @Nullable
+    private String mTraceName;
+    /**
+     * one bit per open phase, whether it opened a trace section, see {@link #beginPhase(int,int)}
+     */
+    private long mTracedPhases;
+    private int mPhaseDepth;
     //header footer
     protected LinearLayout mHeaderLayout;
     protected LinearLayout mFooterLayout;
+    /**
+     * if true every header and footer view is an adapter row of its own,
+     * see {@link #setHeaderFooterAsRows(boolean)}
+     */
+    protected boolean mHeaderFooterAsRows;
+    private final FixedViewRows mHeaderRows = new FixedViewRows(HEADER_ROW_TYPE_START,FIXED_ROW_TYPE_RANGE);
+    private final FixedViewRows mFooterRows = new FixedViewRows(FOOTER_ROW_TYPE_START,FIXED_ROW_TYPE_RANGE);
     //empty
     protected FrameLayout mEmptyLayout;
     protected View mEmptyView;
     protected boolean mIsUseEmpty = true;
     protected boolean mHeadAndEmptyEnable;
     protected boolean mFootAndEmptyEnable;
+    //position mapping
+    private final AdapterSegments mSegments = new AdapterSegments();
+    private boolean mSegmentsDirty = true;
+    private final ViewGroup.OnHierarchyChangeListener mSegmentsInvalidator = new ViewGroup.OnHierarchyChangeListener() {
+        @Override
+        public void onChildViewAdded(View parent,View child) {
+            invalidateSegments();
+        }
+
+        @Override
+        public void onChildViewRemoved(View parent,View child) {
+            invalidateSegments();
+        }
+    };
 
     protected static final String TAG = BaseQuickAdapter.class.getSimpleName();
+    private static final int DEFAULT_PREPARED_MODEL_CACHE_SIZE = 256;
     protected Context mContext;
     protected int mLayoutResId;
     protected LayoutInflater mLayoutInflater;
@@ -131,6 +214,28 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     public static final int LOADING_VIEW = 0x00000222;
     public static final int FOOTER_VIEW = 0x00000333;
     public static final int EMPTY_VIEW = 0x00000555;
+    /**
+     * the empty row of an item that was swiped away and is not removed yet, see {@link SwipeDismissBuffer}
+     */
+    public static final int DISMISSED_VIEW = 0x00000666;
+    /**
+     * view types of the header and footer rows, every row takes one type out of its range
+     */
+    private static final int HEADER_ROW_TYPE_START = 0x10000000;
+    private static final int FOOTER_ROW_TYPE_START = 0x20000000;
+    private static final int FIXED_ROW_TYPE_RANGE = 0x10000000;
+    /**
+     * the phases that are traced and timed, see {@link #beginPhase(int,int)}
+     */
+    private static final int PHASE_CREATE = 0;
+    private static final int PHASE_BIND = 1;
+    private static final int PHASE_BIND_PAYLOADS = 2;
+    private static final int PHASE_DIFF = 3;
+    private static final int PHASE_DIFF_DISPATCH = 4;
+    private static final int PHASE_EXPAND = 5;
+    private static final int PHASE_EXPAND_ALL = 6;
+    private static final int PHASE_COLLAPSE = 7;
+    private static final String[] PHASE_NAMES = {"create","bind","bind payloads","diff","diff dispatch","expand","expandAll","collapse"};
     /**
      * up fetch start
      */
@@ -177,26 +282,88 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             throw new IllegalStateException("Don't bind twice");
         }
         setRecyclerView(recyclerView);
-        if (sEmptyLayoutConfig != null) {
-            setEmptyView(sEmptyLayoutConfig.layoutID,(ViewGroup)getRecyclerView().getParent());
+        EmptyLayoutConfig config = getEmptyLayoutConfig();
+        if (config != null && mEmptyView == null) {
+            mEmptyViewDeferred = true;
+            if (config.graceMillis > 0) {
+                mEmptyGracePending = true;
+                recyclerView.postDelayed(mInflateEmptyViewRunnable,config.graceMillis);
+            } else {
+                inflateConfiguredEmptyView();
+            }
         }
         getRecyclerView().setAdapter(this);
     }
 
+    /**
+     * Like {@link #notifyItemChanged(int)}, but takes the adapter position of a data row
+     * (e.g. {@link RecyclerView.ViewHolder#getAdapterPosition()}) instead of its data position.
+     */
     public void notifyChanged(int pos) {
-        notifyItemChanged(pos - mDataObserverProxy.headerCount);
+        notifyItemChanged(pos - getDataOffset());
     }
 
     public void notifyInserted(int pos) {
-        notifyItemInserted(pos - mDataObserverProxy.headerCount);
+        notifyItemInserted(pos - getDataOffset());
     }
 
     public void notifyRemoved(int pos) {
-        notifyItemRemoved(pos - mDataObserverProxy.headerCount);
+        notifyItemRemoved(pos - getDataOffset());
     }
 
     public void notifyMoved(int fromPosition,int toPosition) {
-        notifyItemMoved(fromPosition - mDataObserverProxy.headerCount,toPosition - mDataObserverProxy.headerCount);
+        notifyItemMoved(fromPosition - getDataOffset(),toPosition - getDataOffset());
+    }
+
+    /**
+     * The raw notifyItem* methods take data positions, this is the adapter position of data position 0,
+     * i.e. the number of header and empty rows in front of the data.
+     */
+    public int getDataOffset() {
+        return getSegments().dataStart;
+    }
+
+    /**
+     * Notify a row outside of the data (header, footer, empty or load more) by its adapter position.
+     * It bypasses the data offset and the cached item types, the metrics get the adapter position.
+     */
+    protected void notifyFixedItemChanged(int position) {
+        if (mDataObserverProxy.hasObservers()) {
+            mDataObserverProxy.dispatchFixedItemRangeChanged(position,1);
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_CHANGED,position,1);
+            }
+        }
+    }
+
+    protected void notifyFixedItemInserted(int position) {
+        if (mDataObserverProxy.hasObservers()) {
+            mDataObserverProxy.dispatchFixedItemRangeInserted(position,1);
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_INSERTED,position,1);
+            }
+        }
+    }
+
+    protected void notifyFixedItemRemoved(int position) {
+        if (mDataObserverProxy.hasObservers()) {
+            mDataObserverProxy.dispatchFixedItemRangeRemoved(position,1);
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_REMOVED,position,1);
+            }
+        }
+    }
+
+    /**
+     * Merge the notifications until {@link #endBatchedUpdates()}, adjacent inserts, removes and
+     * changes reach the RecyclerView as a single range. Calls may be nested.
+     */
+    public void beginBatchedUpdates() {
+        mDataObserverProxy.beginBatch();
+    }
+
+    public void endBatchedUpdates() {
+        mDataObserverProxy.endBatch();
     }
 
     /**
@@ -214,6 +381,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         mNextLoadEnable = true;
         mLoadMoreEnable = true;
         mLoading = false;
+        invalidateSegments();
     }
 
     public void setOnLoadMoreListener(RequestLoadMoreListener requestLoadMoreListener,RecyclerView recyclerView) {
@@ -350,6 +518,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void setLoadMoreView(LoadMoreView loadingView) {
         this.mLoadMoreView = loadingView;
+        invalidateSegments();
     }
 
     /**
@@ -358,6 +527,10 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * @return 0 or 1
      */
     public int getLoadMoreViewCount() {
+        return getSegments().loadMoreViewCount;
+    }
+
+    private int computeLoadMoreViewCount() {
         if (!usePaged) {
             if (mRequestLoadMoreListener == null || !mLoadMoreEnable) {
                 return 0;
@@ -376,7 +549,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * Gets to load more locations
      */
     public int getLoadMoreViewPosition() {
-        return getHeaderLayoutCount() + getAdapterCount() + getFooterLayoutCount();
+        return getSegments().loadMoreStart;
     }
 
     /**
@@ -404,16 +577,19 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             setLoadingViewState(gone);
             return;
         }
+        reportLoadMoreFinished(LoadMoreView.STATUS_END);
         mLoading = false;
         mNextLoadEnable = false;
+        invalidateSegments();
         setLoadingViewState(gone);
     }
 
     public void setLoadingViewState(boolean gone) {
         if (mLoadMoreView != null) {
             mLoadMoreView.setLoadMoreEndGone(gone);
+            invalidateSegments();
             if (gone) {
-                notifyItemRemoved(getLoadMoreViewPosition());
+                notifyFixedItemRemoved(getLoadMoreViewPosition());
             } else {
                 mLoadMoreView.setLoadMoreStatus(LoadMoreView.STATUS_END);
                 notifyDataSetChanged();
@@ -428,10 +604,12 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (getLoadMoreViewCount() == 0) {
             return;
         }
+        reportLoadMoreFinished(LoadMoreView.STATUS_DEFAULT);
         mLoading = false;
         mNextLoadEnable = true;
+        invalidateSegments();
         mLoadMoreView.setLoadMoreStatus(LoadMoreView.STATUS_DEFAULT);
-        notifyItemChanged(getLoadMoreViewPosition());
+        notifyFixedItemChanged(getLoadMoreViewPosition());
     }
 
     /**
@@ -441,9 +619,10 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (getLoadMoreViewCount() == 0) {
             return;
         }
+        reportLoadMoreFinished(LoadMoreView.STATUS_FAIL);
         mLoading = false;
         mLoadMoreView.setLoadMoreStatus(LoadMoreView.STATUS_FAIL);
-        notifyItemChanged(getLoadMoreViewPosition());
+        notifyFixedItemChanged(getLoadMoreViewPosition());
     }
 
     /**
@@ -454,6 +633,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     public void setEnableLoadMore(boolean enable) {
         int oldLoadMoreCount = getLoadMoreViewCount();
         mLoadMoreEnable = enable;
+        invalidateSegments();
         int newLoadMoreCount = getLoadMoreViewCount();
 
         if (oldLoadMoreCount == 1) {
@@ -495,7 +675,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * Do not need to care about the number of headview, only need to pass in the position of the final view
      */
     public final void refreshNotifyItemChanged(int position) {
-        notifyItemChanged(position + getHeaderLayoutCount());
+        notifyItemChanged(position);
     }
 
     public boolean isUsePaged() {
@@ -503,7 +683,11 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     }
 
     public void setUsePaged(boolean usePaged) {
+        if (usePaged && mSwipeDismissBuffer != null) {
+            throw new IllegalStateException("the swipe dismiss buffer can not remove items from a PagedList");
+        }
         this.usePaged = usePaged;
+        invalidateSegments();
     }
 
     /**
@@ -516,6 +700,9 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     public BaseQuickAdapter(@LayoutRes int layoutResId,@Nullable List<T> data,@Nullable DiffUtil.ItemCallback<T> diffCallback) {
         super(diffCallback == null ? new DefaultDiffCallback<T>() : diffCallback);
         usePaged = diffCallback != null;
+        if (diffCallback instanceof DiffSpecItemCallback) {
+            ((DiffSpecItemCallback<T>)diffCallback).setChangeMasks(mChangeMasks);
+        }
         this.mData = data == null ? new ArrayList<T>() : data;
         if (layoutResId != 0) {
             this.mLayoutResId = layoutResId;
@@ -542,25 +729,170 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         this(layoutResId,null,null);
     }
 
-    protected AdapterDataObserverProxy mDataObserverProxy;
-    public RecyclerView.AdapterDataObserver srcObserver;
+    /**
+     * the only observer registered on the super class besides the type cache one,
+     * forwards to the observers registered on this adapter
+     */
+    protected final AdapterDataObserverProxy mDataObserverProxy = new AdapterDataObserverProxy(this);
+
+    /**
+     * view types of the data rows, kept in step with the notify calls of the data positions
+     */
+    protected final ItemTypeCache mItemTypeCache = new ItemTypeCache();
+    /**
+     * keeps {@link #mItemTypeCache} and the position mapping in step with the notify calls
+     */
+    private final RecyclerView.AdapterDataObserver mStructureObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_DATA_SET_CHANGED,0,getAdapterCount());
+            }
+            invalidateSegments();
+            // the holders are rebound in full
+            mChangeMasks.clear();
+            mItemTypeCache.reset(getAdapterCount());
+            if (mDeferredPrepares != null) {
+                mDeferredPrepares.clear();
+            }
+            schedulePrepare(0,mPrefetchDistance,false);
+            onDataSetReset();
+            postInflateEmptyViewIfEmpty();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart,int itemCount) {
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_CHANGED,positionStart,itemCount);
+            }
+            mItemTypeCache.onChanged(positionStart,itemCount);
+            schedulePrepare(positionStart,itemCount,true);
+            onDataRangeChanged(positionStart,itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart,int itemCount,@Nullable Object payload) {
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_CHANGED,positionStart,itemCount);
+            }
+            mItemTypeCache.onChanged(positionStart,itemCount);
+            schedulePrepare(positionStart,itemCount,true);
+            if (payload == ChangeMasks.PAYLOAD) {
+                scheduleDropChangeMasks();
+            }
+            onDataRangeChanged(positionStart,itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart,int itemCount) {
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_INSERTED,positionStart,itemCount);
+            }
+            mItemTypeCache.onInserted(positionStart,itemCount);
+            if (mDeferredPrepares != null) {
+                mDeferredPrepares.onInserted(positionStart,itemCount);
+            }
+            schedulePrepare(positionStart,itemCount,false);
+            onDataRangeInserted(positionStart,itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart,int itemCount) {
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_REMOVED,positionStart,itemCount);
+            }
+            mItemTypeCache.onRemoved(positionStart,itemCount);
+            if (mDeferredPrepares != null) {
+                mDeferredPrepares.onRemoved(positionStart,itemCount);
+            }
+            onDataRangeRemoved(positionStart,itemCount);
+            postInflateEmptyViewIfEmpty();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition,int toPosition,int itemCount) {
+            if (mMetrics != null) {
+                mMetrics.onNotify(AdapterMetrics.NOTIFY_RANGE_MOVED,fromPosition,itemCount);
+            }
+            for (int i = 0; i < itemCount; i++) {
+                mItemTypeCache.onMoved(fromPosition + i,toPosition + i);
+                if (mDeferredPrepares != null) {
+                    mDeferredPrepares.onMoved(fromPosition + i,toPosition + i);
+                }
+                onDataMoved(fromPosition + i,toPosition + i);
+            }
+        }
+    };
+
+    /**
+     * Called for the notify calls of data positions while the adapter is observed, so that
+     * subclasses can keep indices over the data in step. Nothing is called while the adapter is
+     * not observed, {@link #onDataSetReset()} is called when it gets observed again.
+     */
+    protected void onDataSetReset() {
+    }
+
+    protected void onDataRangeChanged(int positionStart,int itemCount) {
+    }
+
+    protected void onDataRangeInserted(int positionStart,int itemCount) {
+    }
+
+    protected void onDataRangeRemoved(int positionStart,int itemCount) {
+    }
+
+    protected void onDataMoved(int fromPosition,int toPosition) {
+    }
 
     @Override
     public void registerAdapterDataObserver(@NonNull RecyclerView.AdapterDataObserver observer) {
-        srcObserver = observer;
-        mDataObserverProxy = new AdapterDataObserverProxy(observer,getHeaderLayoutCount() + getEmptyViewCount());
-        super.registerAdapterDataObserver(mDataObserverProxy);
+        boolean first = !mDataObserverProxy.hasObservers();
+        mDataObserverProxy.addObserver(observer);
+        if (first) {
+            mItemTypeCache.reset(getAdapterCount());
+            onDataSetReset();
+            // observers are called in reverse order, the cache has to be updated first
+            super.registerAdapterDataObserver(mDataObserverProxy);
+            super.registerAdapterDataObserver(mStructureObserver);
+        }
     }
 
     @Override
     public void unregisterAdapterDataObserver(@NonNull RecyclerView.AdapterDataObserver observer) {
-        if (observer == srcObserver) {
+        if (mDataObserverProxy.removeObserver(observer) && !mDataObserverProxy.hasObservers()) {
             super.unregisterAdapterDataObserver(mDataObserverProxy);
-        } else {
-            super.unregisterAdapterDataObserver(observer);
+            super.unregisterAdapterDataObserver(mStructureObserver);
+            // nothing binds the notified rows any more
+            mChangeMasks.clear();
         }
     }
 
+    /**
+     * Drop the change masks before the next frame of the RecyclerView is drawn, see {@link #mDropChangeMasks}.
+     */
+    private void scheduleDropChangeMasks() {
+        if (mDropChangeMasksPending) {
+            return;
+        }
+        if (mAttachedRecyclerView == null) {
+            mChangeMasks.clear();
+            return;
+        }
+        mDropChangeMasksPending = true;
+        mAttachedRecyclerView.getViewTreeObserver().addOnPreDrawListener(mDropChangeMasks);
+    }
+
+    private void removeDropChangeMasks() {
+        if (mDropChangeMasksPending && mAttachedRecyclerView != null) {
+            // the observer the listener was added to may have been merged into the window's one since
+            ViewTreeObserver observer = mAttachedRecyclerView.getViewTreeObserver();
+            if (observer.isAlive()) {
+                observer.removeOnPreDrawListener(mDropChangeMasks);
+            }
+        }
+        mDropChangeMasksPending = false;
+    }
+
     /**
      * setting up a new instance to data;
      */
@@ -570,7 +902,9 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             mNextLoadEnable = true;
             mLoadMoreEnable = true;
             mLoading = false;
+            mLoadMoreRequestNanos = 0;
             mLoadMoreView.setLoadMoreStatus(LoadMoreView.STATUS_DEFAULT);
+            invalidateSegments();
         }
         mLastPosition = -1;
         notifyDataSetChanged();
@@ -599,9 +933,15 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             return;
         }
         baseQuickDiffCallback.setOldList(this.getData());
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(baseQuickDiffCallback,detectMoves);
-        diffResult.dispatchUpdatesTo(new BaseQuickAdapterListUpdateCallback(this));
-        mData = baseQuickDiffCallback.getNewList();
+        baseQuickDiffCallback.setChangeMasks(mChangeMasks);
+        long start = beginPhase(PHASE_DIFF,baseQuickDiffCallback.getNewListSize());
+        DiffUtil.DiffResult diffResult;
+        try {
+            diffResult = DiffUtil.calculateDiff(baseQuickDiffCallback,detectMoves);
+        } finally {
+            endPhase(PHASE_DIFF,start,baseQuickDiffCallback.getOldListSize(),baseQuickDiffCallback.getNewListSize());
+        }
+        dispatchDiff(asDiffDispatch(diffResult),baseQuickDiffCallback.getNewList());
     }
 
     /**
@@ -620,8 +960,65 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             setNewData(newData);
             return;
         }
-        diffResult.dispatchUpdatesTo(new BaseQuickAdapterListUpdateCallback(BaseQuickAdapter.this));
-        mData = newData;
+        dispatchDiff(asDiffDispatch(diffResult),newData);
+    }
+
+    /**
+     * use the result of a {@link ChunkedDiff} setting up a new instance to data, for very large lists.
+     * Calculate it off the main thread with
+     * {@link ChunkedDiff#calculateDiff(BaseQuickDiffCallback,ChunkedDiff.KeyProvider,boolean,Executor)},
+     * it blocks until all parts are diffed. Set the old list of the callback to {@link #getData()}
+     * and its change masks to {@link #getChangeMasks()} first.
+     * <p>
+     * 大数据量时在后台线程按锚点分段并行计算 diff，在主线程分发结果
+     *
+     * @param diffResult ChunkedDiff.Result
+     * @param newData New Data
+     */
+    public void setNewDiffData(@NonNull ChunkedDiff.Result diffResult,@NonNull List<T> newData) {
+        if (getEmptyViewCount() == 1) {
+            // If the current view is an empty view, set the new data directly without diff
+            setNewData(newData);
+            return;
+        }
+        dispatchDiff(asDiffDispatch(diffResult),newData);
+    }
+
+    /**
+     * The dispatch step of a {@link DiffUtil.DiffResult} or a {@link ChunkedDiff.Result}, they share no type.
+     */
+    private interface DiffDispatch {
+        void dispatchUpdatesTo(@NonNull ListUpdateCallback updateCallback);
+    }
+
+    private static DiffDispatch asDiffDispatch(@NonNull final DiffUtil.DiffResult diffResult) {
+        return new DiffDispatch() {
+            @Override
+            public void dispatchUpdatesTo(@NonNull ListUpdateCallback updateCallback) {
+                diffResult.dispatchUpdatesTo(updateCallback);
+            }
+        };
+    }
+
+    private static DiffDispatch asDiffDispatch(@NonNull final ChunkedDiff.Result diffResult) {
+        return new DiffDispatch() {
+            @Override
+            public void dispatchUpdatesTo(@NonNull ListUpdateCallback updateCallback) {
+                diffResult.dispatchUpdatesTo(updateCallback);
+            }
+        };
+    }
+
+    private void dispatchDiff(DiffDispatch diffDispatch,List<T> newData) {
+        long start = beginPhase(PHASE_DIFF_DISPATCH,0);
+        beginDeferredPrepares();
+        try {
+            diffDispatch.dispatchUpdatesTo(new BaseQuickAdapterListUpdateCallback(BaseQuickAdapter.this));
+            mData = newData;
+        } finally {
+            endDeferredPrepares();
+            endPhase(PHASE_DIFF_DISPATCH,start,0,0);
+        }
     }
 
     /**
@@ -639,7 +1036,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void addData(@IntRange(from = 0) int position,@NonNull T data) {
         mData.add(position,data);
-        notifyItemInserted(position + getHeaderLayoutCount());
+        notifyItemInserted(position);
         compatibilityDataSizeChanged(1);
     }
 
@@ -648,7 +1045,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void addData(@NonNull T data) {
         mData.add(data);
-        notifyItemInserted(getAdapterCount() + getHeaderLayoutCount());
+        notifyItemInserted(getAdapterCount() - 1);
         compatibilityDataSizeChanged(1);
     }
 
@@ -657,10 +1054,9 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void remove(@IntRange(from = 0) int position) {
         mData.remove(position);
-        int internalPosition = position + getHeaderLayoutCount();
-        notifyItemRemoved(internalPosition);
+        notifyItemRemoved(position);
         compatibilityDataSizeChanged(0);
-        notifyItemRangeChanged(internalPosition,getAdapterCount() - internalPosition);
+        notifyItemRangeChanged(position,getAdapterCount() - position);
     }
 
     /**
@@ -668,7 +1064,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void setData(@IntRange(from = 0) int index,@NonNull T data) {
         mData.set(index,data);
-        notifyItemChanged(index + getHeaderLayoutCount());
+        notifyItemChanged(index);
     }
 
     /**
@@ -679,7 +1075,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void addData(@IntRange(from = 0) int position,@NonNull Collection<? extends T> newData) {
         mData.addAll(position,newData);
-        notifyItemRangeInserted(position + getHeaderLayoutCount(),newData.size());
+        notifyItemRangeInserted(position,newData.size());
         compatibilityDataSizeChanged(newData.size());
     }
 
@@ -690,7 +1086,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void addData(@NonNull Collection<? extends T> newData) {
         mData.addAll(newData);
-        notifyItemRangeInserted(getAdapterCount() - newData.size() + getHeaderLayoutCount(),newData.size());
+        notifyItemRangeInserted(getAdapterCount() - newData.size(),newData.size());
         compatibilityDataSizeChanged(newData.size());
     }
 
@@ -753,6 +1149,13 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * if addHeaderView will be return 1, if not will be return 0
      */
     public int getHeaderLayoutCount() {
+        return getSegments().headerLayoutCount;
+    }
+
+    private int computeHeaderLayoutCount() {
+        if (mHeaderFooterAsRows) {
+            return mHeaderRows.size();
+        }
         if (mHeaderLayout == null || mHeaderLayout.getChildCount() == 0) {
             return 0;
         }
@@ -763,6 +1166,13 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * if addFooterView will be return 1, if not will be return 0
      */
     public int getFooterLayoutCount() {
+        return getSegments().footerLayoutCount;
+    }
+
+    private int computeFooterLayoutCount() {
+        if (mHeaderFooterAsRows) {
+            return mFooterRows.size();
+        }
         if (mFooterLayout == null || mFooterLayout.getChildCount() == 0) {
             return 0;
         }
@@ -773,6 +1183,10 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * if show empty view will be return 1 or not will be return 0
      */
     public int getEmptyViewCount() {
+        return getSegments().emptyViewCount;
+    }
+
+    private int computeEmptyViewCount() {
         if (mEmptyLayout == null || mEmptyLayout.getChildCount() == 0) {
             return 0;
         }
@@ -787,22 +1201,50 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
 
     @Override
     public int getItemCount() {
-        int count;
-        if (1 == getEmptyViewCount()) {
-            count = 1;
-            if (mHeadAndEmptyEnable && getHeaderLayoutCount() != 0) {
-                count++;
-            }
-            if (mFootAndEmptyEnable && getFooterLayoutCount() != 0) {
-                count++;
-            }
-        } else {
-            count = getHeaderLayoutCount() + getAdapterCount() + getFooterLayoutCount() + getLoadMoreViewCount();
+        return getSegments().itemCount;
+    }
+
+    /**
+     * Call when an input of the position mapping changed that the adapter can not see by itself,
+     * e.g. a protected load more or empty flag was written directly.
+     * Header, footer and empty layout children and the data size are tracked automatically.
+     */
+    protected void invalidateSegments() {
+        mSegmentsDirty = true;
+    }
+
+    /**
+     * @return the cached offsets of the header, empty, data, footer and load more rows
+     */
+    AdapterSegments getSegments() {
+        int adapterCount = getAdapterCount();
+        if (mSegmentsDirty || mSegments.adapterCount != adapterCount) {
+            mSegmentsDirty = false;
+            mSegments.set(computeHeaderLayoutCount(),computeFooterLayoutCount(),computeEmptyViewCount(),computeLoadMoreViewCount(),adapterCount,
+                mHeadAndEmptyEnable,mFootAndEmptyEnable);
         }
-        return count;
+        return mSegments;
     }
 
+    /**
+     * default empty layout of every adapter that has no {@link #setEmptyLayoutConfig(EmptyLayoutConfig)}
+     */
     public static EmptyLayoutConfig sEmptyLayoutConfig;
+    protected EmptyLayoutConfig mEmptyLayoutConfig;
+    private EmptyStateViews mEmptyStateViews;
+    /**
+     * the config layout is known but not inflated yet
+     */
+    private boolean mEmptyViewDeferred;
+    private boolean mEmptyGracePending;
+    private int mPendingEmptyState = -1;
+    private final Runnable mInflateEmptyViewRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mEmptyGracePending = false;
+            inflateConfiguredEmptyView();
+        }
+    };
 
     protected PagedList<T> mCurrentList;
 
@@ -846,6 +1288,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (position == 0 && count != 0) {
             if (mIsUseEmpty) {
                 mIsUseEmpty = false;
+                invalidateSegments();
                 notifyDataSetChanged();
             }
             //setEnableLoadMore(true);
@@ -858,45 +1301,23 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
 
     @Override
     public int getItemViewType(int position) {
-        if (getEmptyViewCount() == 1) {
-            boolean header = mHeadAndEmptyEnable && getHeaderLayoutCount() != 0;
-            switch (position) {
-                case 0:
-                    if (header) {
-                        return HEADER_VIEW;
-                    } else {
-                        return EMPTY_VIEW;
-                    }
-                case 1:
-                    if (header) {
-                        return EMPTY_VIEW;
-                    } else {
-                        return FOOTER_VIEW;
-                    }
-                case 2:
-                    return FOOTER_VIEW;
-                default:
-                    return EMPTY_VIEW;
+        AdapterSegments segments = getSegments();
+        if (segments.isDataPosition(position)) {
+            if (mSwipeDismissBuffer != null && mSwipeDismissBuffer.isDismissed(position - segments.dataStart)) {
+                return DISMISSED_VIEW;
             }
+            return getCachedItemViewType(position - segments.dataStart,segments.dataCount);
         }
-        int numHeaders = getHeaderLayoutCount();
-        if (position < numHeaders) {
-            return HEADER_VIEW;
-        } else {
-            int adjPosition = position - numHeaders;
-            int adapterCount = getAdapterCount();
-            if (adjPosition < adapterCount) {
-                return getDefItemViewType(adjPosition);
-            } else {
-                adjPosition = adjPosition - adapterCount;
-                int numFooters = getFooterLayoutCount();
-                if (adjPosition < numFooters) {
-                    return FOOTER_VIEW;
-                } else {
-                    return LOADING_VIEW;
-                }
-            }
+        if (position < segments.emptyStart) {
+            return mHeaderFooterAsRows ? mHeaderRows.getType(position) : HEADER_VIEW;
+        }
+        if (position < segments.dataStart) {
+            return EMPTY_VIEW;
         }
+        if (position < segments.loadMoreStart) {
+            return mHeaderFooterAsRows ? mFooterRows.getType(position - segments.footerStart) : FOOTER_VIEW;
+        }
+        return segments.emptyCount == 1 ? EMPTY_VIEW : LOADING_VIEW;
     }
 
     public int getAdapterCount() {
@@ -904,6 +1325,23 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         return usePaged ? super.getItemCount() : mData.size();
     }
 
+    /**
+     * Read the view type of a data row from {@link #mItemTypeCache},
+     * {@link #getDefItemViewType(int)} is only called for rows that are not cached yet.
+     */
+    private int getCachedItemViewType(int position,int adapterCount) {
+        if (mItemTypeCache.size() != adapterCount) {
+            // the data was changed without a notify, nothing cached can be trusted
+            mItemTypeCache.reset(adapterCount);
+        }
+        int type = mItemTypeCache.get(position);
+        if (type == ItemTypeCache.UNKNOWN_TYPE) {
+            type = getDefItemViewType(position);
+            mItemTypeCache.put(position,type);
+        }
+        return type;
+    }
+
     protected int getDefItemViewType(int position) {
         if (mMultiTypeDelegate != null) {
             return mMultiTypeDelegate.getDefItemViewType(getItem(position));
@@ -914,6 +1352,15 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     @NonNull
     @Override
     public K onCreateViewHolder(@NonNull ViewGroup parent,int viewType) {
+        long start = beginPhase(PHASE_CREATE,viewType);
+        try {
+            return createViewHolder(parent,viewType);
+        } finally {
+            endPhase(PHASE_CREATE,start,viewType,0);
+        }
+    }
+
+    private K createViewHolder(@NonNull ViewGroup parent,int viewType) {
         K baseViewHolder = null;
         this.mContext = parent.getContext();
         this.mLayoutInflater = LayoutInflater.from(mContext);
@@ -930,7 +1377,21 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             case FOOTER_VIEW:
                 baseViewHolder = createBaseViewHolder(mFooterLayout);
                 break;
+            case DISMISSED_VIEW:
+                View dismissedView = new View(mContext);
+                dismissedView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,0));
+                baseViewHolder = createBaseViewHolder(dismissedView);
+                break;
             default:
+                View rowView = getFixedRowView(viewType);
+                if (rowView != null) {
+                    // the holder of a removed row may still hold the view
+                    if (rowView.getParent() instanceof ViewGroup && rowView.getParent() != parent) {
+                        ((ViewGroup)rowView.getParent()).removeView(rowView);
+                    }
+                    baseViewHolder = createBaseViewHolder(rowView);
+                    break;
+                }
                 baseViewHolder = onCreateDefViewHolder(parent,viewType);
                 bindViewClickListener(baseViewHolder);
         }
@@ -963,7 +1424,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             return;
         }
         mLoadMoreView.setLoadMoreStatus(LoadMoreView.STATUS_DEFAULT);
-        notifyItemChanged(getLoadMoreViewPosition());
+        notifyFixedItemChanged(getLoadMoreViewPosition());
     }
 
     /**
@@ -982,9 +1443,9 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     public void onViewAttachedToWindow(@NonNull K holder) {
         super.onViewAttachedToWindow(holder);
         int type = holder.getItemViewType();
-        if (type == EMPTY_VIEW || type == HEADER_VIEW || type == FOOTER_VIEW || type == LOADING_VIEW) {
+        if (type == EMPTY_VIEW || isHeaderViewType(type) || isFooterViewType(type) || type == LOADING_VIEW) {
             setFullSpan(holder);
-        } else {
+        } else if (type != DISMISSED_VIEW) {
             addAnimation(holder);
         }
     }
@@ -1007,17 +1468,26 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     @Override
     public void onAttachedToRecyclerView(@NonNull final RecyclerView recyclerView) {
         super.onAttachedToRecyclerView(recyclerView);
+        removeDropChangeMasks();
+        mAttachedRecyclerView = recyclerView;
+        mAnimationController.attach(recyclerView);
+        if (mSwipeDismissBuffer != null) {
+            mSwipeDismissBuffer.resume();
+        }
         RecyclerView.LayoutManager manager = recyclerView.getLayoutManager();
         if (manager instanceof GridLayoutManager) {
             final GridLayoutManager gridManager = ((GridLayoutManager)manager);
-            gridManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            if (mGridSpanSizeLookup != null) {
+                unregisterAdapterDataObserver(mGridSpanSizeLookup.getDataObserver());
+            }
+            mGridSpanSizeLookup = new CachedSpanSizeLookup() {
                 @Override
                 public int getSpanSize(int position) {
                     int type = getItemViewType(position);
-                    if (type == HEADER_VIEW && isHeaderViewAsFlow()) {
+                    if (isHeaderViewType(type) && isHeaderViewAsFlow()) {
                         return 1;
                     }
-                    if (type == FOOTER_VIEW && isFooterViewAsFlow()) {
+                    if (isFooterViewType(type) && isFooterViewAsFlow()) {
                         return 1;
                     }
                     if (mSpanSizeLookup == null) {
@@ -1026,16 +1496,59 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
                         return (isFixedViewType(type)) ? gridManager.getSpanCount() : mSpanSizeLookup.getSpanSize(gridManager,position - getHeaderLayoutCount());
                     }
                 }
-            });
+            };
+            registerAdapterDataObserver(mGridSpanSizeLookup.getDataObserver());
+            gridManager.setSpanSizeLookup(mGridSpanSizeLookup);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (recyclerView == mAttachedRecyclerView) {
+            removeDropChangeMasks();
+            mAttachedRecyclerView = null;
+        }
+        mAnimationController.detach(recyclerView);
+        if (mSwipeDismissBuffer != null) {
+            mSwipeDismissBuffer.pause();
+        }
+        if (mGridSpanSizeLookup != null) {
+            unregisterAdapterDataObserver(mGridSpanSizeLookup.getDataObserver());
+            mGridSpanSizeLookup = null;
+        }
+    }
+
+    /**
+     * Drop the cached span indices, for span size changes that are not notified.
+     */
+    private void invalidateSpanIndices() {
+        if (mGridSpanSizeLookup != null) {
+            mGridSpanSizeLookup.invalidateAll();
         }
     }
 
     protected boolean isFixedViewType(int type) {
-        return type == EMPTY_VIEW || type == HEADER_VIEW || type == FOOTER_VIEW || type == LOADING_VIEW;
+        return type == EMPTY_VIEW || isHeaderViewType(type) || isFooterViewType(type) || type == LOADING_VIEW;
+    }
+
+    /**
+     * @return true if the type is {@link #HEADER_VIEW} or the type of a header row
+     */
+    public static boolean isHeaderViewType(int type) {
+        return type == HEADER_VIEW || (type >= HEADER_ROW_TYPE_START && type < HEADER_ROW_TYPE_START + FIXED_ROW_TYPE_RANGE);
+    }
+
+    /**
+     * @return true if the type is {@link #FOOTER_VIEW} or the type of a footer row
+     */
+    public static boolean isFooterViewType(int type) {
+        return type == FOOTER_VIEW || (type >= FOOTER_ROW_TYPE_START && type < FOOTER_ROW_TYPE_START + FIXED_ROW_TYPE_RANGE);
     }
 
     public void setHeaderViewAsFlow(boolean headerViewAsFlow) {
         this.headerViewAsFlow = headerViewAsFlow;
+        invalidateSpanIndices();
     }
 
     public boolean isHeaderViewAsFlow() {
@@ -1044,6 +1557,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
 
     public void setFooterViewAsFlow(boolean footerViewAsFlow) {
         this.footerViewAsFlow = footerViewAsFlow;
+        invalidateSpanIndices();
     }
 
     public boolean isFooterViewAsFlow() {
@@ -1051,6 +1565,10 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     }
 
     private SpanSizeLookup mSpanSizeLookup;
+    /**
+     * the lookup installed on a GridLayoutManager, caches the span indices
+     */
+    private CachedSpanSizeLookup mGridSpanSizeLookup;
 
     public interface SpanSizeLookup {
         int getSpanSize(GridLayoutManager gridLayoutManager,int position);
@@ -1061,6 +1579,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void setSpanSizeLookup(SpanSizeLookup spanSizeLookup) {
         this.mSpanSizeLookup = spanSizeLookup;
+        invalidateSpanIndices();
     }
 
     /**
@@ -1070,6 +1589,15 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     @Override
     public void onBindViewHolder(@NonNull K holder,int position) {
+        long start = beginPhase(PHASE_BIND,holder.getItemViewType());
+        try {
+            bindViewHolder(holder,position);
+        } finally {
+            endPhase(PHASE_BIND,start,holder.getItemViewType(),0);
+        }
+    }
+
+    private void bindViewHolder(@NonNull K holder,int position) {
         //Add up fetch logic, almost like load more, but simpler.
         autoUpFetch(position);
         //Do not move position, need to change before LoadMoreView binding
@@ -1085,10 +1613,21 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
                 break;
             case FOOTER_VIEW:
                 break;
+            case DISMISSED_VIEW:
+                break;
             case 0:
             default:
+                if (mHeaderFooterAsRows && (isHeaderViewType(viewType) || isFooterViewType(viewType))) {
+                    break;
+                }
+                if (mPrepareStage != null) {
+                    prefetchPrepare(position - getDataOffset());
+                }
                 T item = getItem(position - getHeaderLayoutCount());
                 if (item != null) {
+                    if (!mChangeMasks.isEmpty()) {
+                        mChangeMasks.take(item);
+                    }
                     convert(holder,item);
                 }
                 break;
@@ -1114,6 +1653,86 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             onBindViewHolder(holder,position);
             return;
         }
+        long start = beginPhase(PHASE_BIND_PAYLOADS,holder.getItemViewType());
+        try {
+            bindViewHolder(holder,position,payloads);
+        } finally {
+            endPhase(PHASE_BIND_PAYLOADS,start,holder.getItemViewType(),0);
+        }
+    }
+
+    /**
+     * Opens the trace section of a phase and starts its timing, close it with
+     * {@link #endPhase(int,long,int,int)} in a finally block. The section name is only built while
+     * tracing, and the clock is only read while metrics are set.
+     *
+     * @param value the view type of create and bind, the new list size of a diff, unused otherwise
+     * @return the start time for {@link #endPhase(int,long,int,int)}
+     */
+    private long beginPhase(int phase,int value) {
+        if (AdapterTrace.isEnabled() && mPhaseDepth < Long.SIZE) {
+            String suffix;
+            if (phase == PHASE_DIFF) {
+                suffix = " n=" + value;
+            } else if (phase <= PHASE_BIND_PAYLOADS) {
+                suffix = " type=" + value;
+            } else {
+                suffix = "";
+            }
+            AdapterTrace.beginSection("BRVAH " + PHASE_NAMES[phase] + " " + getTraceName() + suffix);
+            // tracing may be turned off before the phase ends, the section has to be closed anyway
+            mTracedPhases |= 1L << mPhaseDepth;
+        }
+        mPhaseDepth++;
+        return mMetrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @param value the view type of create and bind, the old list size of a diff
+     * @param value2 the new list size of a diff
+     */
+    private void endPhase(int phase,long start,int value,int value2) {
+        mPhaseDepth--;
+        if (mPhaseDepth < Long.SIZE && (mTracedPhases & 1L << mPhaseDepth) != 0) {
+            mTracedPhases &= ~(1L << mPhaseDepth);
+            AdapterTrace.endSection();
+        }
+        if (mMetrics == null || start == 0) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        switch (phase) {
+            case PHASE_CREATE:
+                mMetrics.onCreateViewHolder(value,duration);
+                break;
+            case PHASE_BIND:
+            case PHASE_BIND_PAYLOADS:
+                mMetrics.onBindViewHolder(value,duration,phase == PHASE_BIND_PAYLOADS);
+                break;
+            case PHASE_DIFF:
+                mMetrics.onDiffCalculated(value,value2,duration);
+                break;
+            case PHASE_DIFF_DISPATCH:
+                mMetrics.onDiffDispatched(duration);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @return the name of the adapter in trace sections
+     */
+    String getTraceName() {
+        if (mTraceName == null) {
+            String name = getClass().getSimpleName();
+            // anonymous adapters
+            mTraceName = name.isEmpty() ? getClass().getName() : name;
+        }
+        return mTraceName;
+    }
+
+    private void bindViewHolder(@NonNull K holder,int position,@NonNull List<Object> payloads) {
         //Add up fetch logic, almost like load more, but simpler.
         autoUpFetch(position);
         //Do not move position, need to change before LoadMoreView binding
@@ -1130,13 +1749,61 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
                 break;
             case FOOTER_VIEW:
                 break;
+            case DISMISSED_VIEW:
+                break;
             case 0:
             default:
-                convertPayloads(holder,getItem(position - getHeaderLayoutCount()),payloads);
+                if (mHeaderFooterAsRows && (isHeaderViewType(viewType) || isFooterViewType(viewType))) {
+                    break;
+                }
+                T item = getItem(position - getHeaderLayoutCount());
+                if (!hasMaskPayload(payloads)) {
+                    convertPayloads(holder,item,payloads);
+                    break;
+                }
+                long mask = mChangeMasks.take(item);
+                if (mask == 0) {
+                    // the mask went with a data set change or was dropped after its frame
+                    convert(holder,item);
+                    break;
+                }
+                convertPayloads(holder,item,mask);
+                if (payloads.size() > 1) {
+                    bindOtherPayloads(holder,item,payloads);
+                }
                 break;
         }
     }
 
+    /**
+     * Pass the payloads other than the mask marker on, through a list reused by every bind.
+     */
+    private void bindOtherPayloads(@NonNull K holder,T item,@NonNull List<Object> payloads) {
+        for (int i = 0; i < payloads.size(); i++) {
+            Object payload = payloads.get(i);
+            if (payload != ChangeMasks.PAYLOAD) {
+                mOtherPayloads.add(payload);
+            }
+        }
+        if (mOtherPayloads.isEmpty()) {
+            return;
+        }
+        try {
+            convertPayloads(holder,item,mOtherPayloads);
+        } finally {
+            mOtherPayloads.clear();
+        }
+    }
+
+    private static boolean hasMaskPayload(List<Object> payloads) {
+        for (int i = 0; i < payloads.size(); i++) {
+            if (payloads.get(i) == ChangeMasks.PAYLOAD) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void bindViewClickListener(final BaseViewHolder baseViewHolder) {
         if (baseViewHolder == null) {
             return;
@@ -1188,6 +1855,8 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
 
     public void setMultiTypeDelegate(MultiTypeDelegate<T> multiTypeDelegate) {
         mMultiTypeDelegate = multiTypeDelegate;
+        mItemTypeCache.invalidate();
+        invalidateSpanIndices();
     }
 
     public MultiTypeDelegate<T> getMultiTypeDelegate() {
@@ -1285,7 +1954,31 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     }
 
     /**
-     * Return root layout of header
+     * Make every header and footer view an adapter row of its own instead of stacking them into
+     * {@link #getHeaderLayout()} / {@link #getFooterLayout()}.
+     * The RecyclerView can then detach and recycle a header that is scrolled out independently
+     * of the others, which matters for tall header stacks.
+     * Must be called before the first header or footer is added.
+     * <p>
+     * 每个 header/footer 单独作为一个条目，可以分别被回收，需在添加 header/footer 之前调用
+     */
+    public void setHeaderFooterAsRows(boolean asRows) {
+        if (mHeaderFooterAsRows == asRows) {
+            return;
+        }
+        if (getHeaderLayoutCount() != 0 || getFooterLayoutCount() != 0) {
+            throw new IllegalStateException("setHeaderFooterAsRows must be called before any header or footer is added");
+        }
+        mHeaderFooterAsRows = asRows;
+        invalidateSegments();
+    }
+
+    public boolean isHeaderFooterAsRows() {
+        return mHeaderFooterAsRows;
+    }
+
+    /**
+     * Return root layout of header, null if {@link #setHeaderFooterAsRows(boolean)} is on
      */
 
     public LinearLayout getHeaderLayout() {
@@ -1293,7 +1986,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     }
 
     /**
-     * Return root layout of footer
+     * Return root layout of footer, null if {@link #setHeaderFooterAsRows(boolean)} is on
      */
     public LinearLayout getFooterLayout() {
         return mFooterLayout;
@@ -1323,8 +2016,12 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      *
      */
     public int addHeaderView(View header,final int index,int orientation) {
+        if (mHeaderFooterAsRows) {
+            return addFixedRow(mHeaderRows,header,index,orientation);
+        }
         if (mHeaderLayout == null) {
             mHeaderLayout = new LinearLayout(header.getContext());
+            mHeaderLayout.setOnHierarchyChangeListener(mSegmentsInvalidator);
             if (orientation == LinearLayout.VERTICAL) {
                 mHeaderLayout.setOrientation(LinearLayout.VERTICAL);
                 mHeaderLayout.setLayoutParams(new RecyclerView.LayoutParams(MATCH_PARENT,WRAP_CONTENT));
@@ -1342,7 +2039,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (mHeaderLayout.getChildCount() == 1) {
             int position = getHeaderViewPosition();
             if (position != -1) {
-                notifyItemInserted(position);
+                notifyFixedItemInserted(position);
             }
         }
         return mIndex;
@@ -1357,6 +2054,9 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     }
 
     public int setHeaderView(View header,int index,int orientation) {
+        if (mHeaderFooterAsRows) {
+            return setFixedRow(mHeaderRows,header,index,orientation);
+        }
         if (mHeaderLayout == null || mHeaderLayout.getChildCount() <= index) {
             return addHeaderView(header,index,orientation);
         } else {
@@ -1387,8 +2087,12 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * the effect of this method is the same as that of {@link #addFooterView(View)}.
      */
     public int addFooterView(View footer,int index,int orientation) {
+        if (mHeaderFooterAsRows) {
+            return addFixedRow(mFooterRows,footer,index,orientation);
+        }
         if (mFooterLayout == null) {
             mFooterLayout = new LinearLayout(footer.getContext());
+            mFooterLayout.setOnHierarchyChangeListener(mSegmentsInvalidator);
             if (orientation == LinearLayout.VERTICAL) {
                 mFooterLayout.setOrientation(LinearLayout.VERTICAL);
                 mFooterLayout.setLayoutParams(new RecyclerView.LayoutParams(MATCH_PARENT,WRAP_CONTENT));
@@ -1405,7 +2109,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (mFooterLayout.getChildCount() == 1) {
             int position = getFooterViewPosition();
             if (position != -1) {
-                notifyItemInserted(position);
+                notifyFixedItemInserted(position);
             }
         }
         return index;
@@ -1420,6 +2124,9 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     }
 
     public int setFooterView(View header,int index,int orientation) {
+        if (mHeaderFooterAsRows) {
+            return setFixedRow(mFooterRows,header,index,orientation);
+        }
         if (mFooterLayout == null || mFooterLayout.getChildCount() <= index) {
             return addFooterView(header,index,orientation);
         } else {
@@ -1437,12 +2144,19 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (getHeaderLayoutCount() == 0) {
             return;
         }
+        if (mHeaderFooterAsRows) {
+            int index = mHeaderRows.indexOf(header);
+            if (index != -1) {
+                removeFixedRow(mHeaderRows,index);
+            }
+            return;
+        }
 
         mHeaderLayout.removeView(header);
         if (mHeaderLayout.getChildCount() == 0) {
             int position = getHeaderViewPosition();
             if (position != -1) {
-                notifyItemRemoved(position);
+                notifyFixedItemRemoved(position);
             }
         }
     }
@@ -1455,12 +2169,19 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (getFooterLayoutCount() == 0) {
             return;
         }
+        if (mHeaderFooterAsRows) {
+            int index = mFooterRows.indexOf(footer);
+            if (index != -1) {
+                removeFixedRow(mFooterRows,index);
+            }
+            return;
+        }
 
         mFooterLayout.removeView(footer);
         if (mFooterLayout.getChildCount() == 0) {
             int position = getFooterViewPosition();
             if (position != -1) {
-                notifyItemRemoved(position);
+                notifyFixedItemRemoved(position);
             }
         }
     }
@@ -1472,11 +2193,19 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (getHeaderLayoutCount() == 0) {
             return;
         }
+        if (mHeaderFooterAsRows) {
+            beginBatchedUpdates();
+            for (int i = mHeaderRows.size() - 1; i >= 0; i--) {
+                removeFixedRow(mHeaderRows,i);
+            }
+            endBatchedUpdates();
+            return;
+        }
 
         mHeaderLayout.removeAllViews();
         int position = getHeaderViewPosition();
         if (position != -1) {
-            notifyItemRemoved(position);
+            notifyFixedItemRemoved(position);
         }
     }
 
@@ -1487,40 +2216,96 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         if (getFooterLayoutCount() == 0) {
             return;
         }
+        if (mHeaderFooterAsRows) {
+            beginBatchedUpdates();
+            for (int i = mFooterRows.size() - 1; i >= 0; i--) {
+                removeFixedRow(mFooterRows,i);
+            }
+            endBatchedUpdates();
+            return;
+        }
 
         mFooterLayout.removeAllViews();
         int position = getFooterViewPosition();
         if (position != -1) {
-            notifyItemRemoved(position);
+            notifyFixedItemRemoved(position);
         }
     }
 
+    private int addFixedRow(FixedViewRows rows,View view,int index,int orientation) {
+        if (view.getLayoutParams() == null) {
+            view.setLayoutParams(orientation == LinearLayout.VERTICAL ? new RecyclerView.LayoutParams(MATCH_PARENT,WRAP_CONTENT)
+                : new RecyclerView.LayoutParams(WRAP_CONTENT,MATCH_PARENT));
+        }
+        index = rows.add(index,view);
+        invalidateSegments();
+        int position = getFixedRowPosition(rows);
+        if (position != -1) {
+            notifyFixedItemInserted(position + index);
+        }
+        return index;
+    }
+
+    private int setFixedRow(FixedViewRows rows,View view,int index,int orientation) {
+        if (index < 0 || index >= rows.size()) {
+            return addFixedRow(rows,view,index,orientation);
+        }
+        // the new view gets a new type, so it is removed and inserted instead of changed
+        removeFixedRow(rows,index);
+        return addFixedRow(rows,view,index,orientation);
+    }
+
+    private void removeFixedRow(FixedViewRows rows,int index) {
+        int type = rows.getType(index);
+        rows.remove(index);
+        invalidateSegments();
+        if (getRecyclerView() != null) {
+            // no other row will ever ask for this type, don't keep its holder in the pool
+            getRecyclerView().getRecycledViewPool().setMaxRecycledViews(type,0);
+        }
+        int position = getFixedRowPosition(rows);
+        if (position != -1) {
+            notifyFixedItemRemoved(position + index);
+        }
+    }
+
+    /**
+     * @return the adapter position of the first row of the header or footer rows, -1 if they are hidden
+     */
+    private int getFixedRowPosition(FixedViewRows rows) {
+        return rows == mHeaderRows ? getHeaderViewPosition() : getFooterViewPosition();
+    }
+
+    /**
+     * @return the header or footer view of a row type, null if the type is not a row
+     */
+    private View getFixedRowView(int viewType) {
+        if (!mHeaderFooterAsRows) {
+            return null;
+        }
+        FixedViewRows rows = isHeaderViewType(viewType) ? mHeaderRows : isFooterViewType(viewType) ? mFooterRows : null;
+        if (rows == null) {
+            return null;
+        }
+        int index = rows.indexOfType(viewType);
+        return index == -1 ? null : rows.getView(index);
+    }
+
     private int getHeaderViewPosition() {
         //Return to header view notify position
-        if (getEmptyViewCount() == 1) {
-            if (mHeadAndEmptyEnable) {
-                return 0;
-            }
-        } else {
-            return 0;
+        if (getSegments().emptyCount == 1 && !mHeadAndEmptyEnable) {
+            return -1;
         }
-        return -1;
+        return 0;
     }
 
     private int getFooterViewPosition() {
         //Return to footer view notify position
-        if (getEmptyViewCount() == 1) {
-            int position = 1;
-            if (mHeadAndEmptyEnable && getHeaderLayoutCount() != 0) {
-                position++;
-            }
-            if (mFootAndEmptyEnable) {
-                return position;
-            }
-        } else {
-            return getHeaderLayoutCount() + getAdapterCount();
+        AdapterSegments segments = getSegments();
+        if (segments.emptyCount == 1 && !mFootAndEmptyEnable) {
+            return -1;
         }
-        return -1;
+        return segments.footerStart;
     }
 
     public void setEmptyView(int layoutResId,ViewGroup viewGroup) {
@@ -1546,6 +2331,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         boolean insert = false;
         if (mEmptyLayout == null) {
             mEmptyLayout = new FrameLayout(emptyView.getContext());
+            mEmptyLayout.setOnHierarchyChangeListener(mSegmentsInvalidator);
             final RecyclerView.LayoutParams layoutParams = new RecyclerView.LayoutParams(RecyclerView.LayoutParams.MATCH_PARENT,RecyclerView.LayoutParams.MATCH_PARENT);
             final ViewGroup.LayoutParams lp = emptyView.getLayoutParams();
             if (lp != null) {
@@ -1557,22 +2343,23 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         }
         mEmptyLayout.removeAllViews();
         mEmptyLayout.addView(emptyView);
-        if (sEmptyLayoutConfig != null) {
-            emptyView.findViewById(sEmptyLayoutConfig.retryId).setOnClickListener(new View.OnClickListener() {
+        EmptyLayoutConfig config = getEmptyLayoutConfig();
+        if (config != null) {
+            mEmptyStateViews = new EmptyStateViews(emptyView,config,new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
                     onRetryLoad();
                 }
             });
+        } else {
+            mEmptyStateViews = null;
         }
         mIsUseEmpty = true;
+        invalidateSegments();
         if (insert && getEmptyViewCount() == 1) {
-            int position = 0;
-            if (mHeadAndEmptyEnable && getHeaderLayoutCount() != 0) {
-                position++;
-            }
+            int position = getSegments().emptyStart;
             if (getItemCount() > oldItemCount) {
-                notifyItemInserted(position);
+                notifyFixedItemInserted(position);
             } else {
                 notifyDataSetChanged();
             }
@@ -1588,29 +2375,64 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         }
     }
 
+    /**
+     * @param state {@link EmptyLayoutConfig#STATE_LOADING}, {@link EmptyLayoutConfig#STATE_EMPTY} or {@link EmptyLayoutConfig#STATE_ERROR}
+     */
     public void setEmptyViewState(int state) {
         if (mEmptyView == null) {
+            if (mEmptyViewDeferred) {
+                // applied once the layout is inflated
+                mPendingEmptyState = state;
+                if (!mEmptyGracePending) {
+                    inflateConfiguredEmptyView();
+                }
+            }
             return;
         }
-        View loading = mEmptyView.findViewById(sEmptyLayoutConfig.loadingGroupId);
-        loading.setVisibility(View.GONE);
-        View empty = mEmptyView.findViewById(sEmptyLayoutConfig.emptyGroupId);
-        empty.setVisibility(View.GONE);
-        View error = mEmptyView.findViewById(sEmptyLayoutConfig.errorGroupId);
-        error.setVisibility(View.GONE);
-        switch (state) {
-            case 0:
-                loading.setVisibility(View.VISIBLE);
-                break;
-            case 1:
-                empty.setVisibility(View.VISIBLE);
-                break;
-            case 2:
-                error.setVisibility(View.VISIBLE);
-                break;
-            default:
+        if (mEmptyStateViews != null) {
+            mEmptyStateViews.show(state);
         }
         mIsUseEmpty = true;
+        invalidateSegments();
+    }
+
+    /**
+     * Set the empty layout of this adapter, it overrides {@link #sEmptyLayoutConfig}.
+     * Call before {@link #bindToRecyclerView(RecyclerView)}.
+     */
+    public void setEmptyLayoutConfig(@Nullable EmptyLayoutConfig config) {
+        mEmptyLayoutConfig = config;
+    }
+
+    @Nullable
+    public EmptyLayoutConfig getEmptyLayoutConfig() {
+        return mEmptyLayoutConfig != null ? mEmptyLayoutConfig : sEmptyLayoutConfig;
+    }
+
+    /**
+     * Inflate the config layout unless data arrived in the meantime,
+     * it is then inflated when the adapter becomes empty.
+     */
+    private void inflateConfiguredEmptyView() {
+        EmptyLayoutConfig config = getEmptyLayoutConfig();
+        if (!mEmptyViewDeferred || config == null || getRecyclerView() == null || getAdapterCount() != 0) {
+            return;
+        }
+        mEmptyViewDeferred = false;
+        setEmptyView(config.layoutID,(ViewGroup)getRecyclerView().getParent());
+        if (mPendingEmptyState != -1) {
+            int state = mPendingEmptyState;
+            mPendingEmptyState = -1;
+            setEmptyViewState(state);
+        }
+    }
+
+    private void postInflateEmptyViewIfEmpty() {
+        if (mEmptyViewDeferred && !mEmptyGracePending && getRecyclerView() != null && getAdapterCount() == 0) {
+            // not from inside the notify that is being dispatched
+            getRecyclerView().removeCallbacks(mInflateEmptyViewRunnable);
+            getRecyclerView().post(mInflateEmptyViewRunnable);
+        }
     }
 
     /**
@@ -1629,6 +2451,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     public void setHeaderFooterEmpty(boolean isHeadAndEmpty,boolean isFootAndEmpty) {
         mHeadAndEmptyEnable = isHeadAndEmpty;
         mFootAndEmptyEnable = isFootAndEmpty;
+        invalidateSegments();
     }
 
     /**
@@ -1636,6 +2459,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      */
     public void isUseEmpty(boolean isUseEmpty) {
         mIsUseEmpty = isUseEmpty;
+        invalidateSegments();
     }
 
     /**
@@ -1678,6 +2502,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             mLoadMoreView.setLoadMoreStatus(LoadMoreView.STATUS_LOADING);
             if (!mLoading) {
                 mLoading = true;
+                mLoadMoreRequestNanos = mMetrics != null ? System.nanoTime() : 0;
                 if (getRecyclerView() != null) {
                     getRecyclerView().post(new Runnable() {
                         @Override
@@ -1694,6 +2519,9 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
 
     /**
      * add animation when you want to show time
+     * <p>
+     * An {@link ItemAnimation} is applied frame by frame by an animator kept per item view, the animators
+     * of other animations are reused per item view. See {@link #setAnimationBudget(int,long)}.
      */
     private void addAnimation(RecyclerView.ViewHolder holder) {
         if (mOpenAnimationEnable) {
@@ -1704,10 +2532,22 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
                 } else {
                     animation = mSelectAnimation;
                 }
-                for (Animator anim : animation.getAnimators(holder.itemView)) {
-                    startAnim(anim,holder.getLayoutPosition());
+                long duration = mAnimationController.getDuration(mDuration);
+                if (animation instanceof ItemAnimation && mAnimationController.isStaggered()) {
+                    mAnimationController.queue(holder.itemView,holder.getLayoutPosition(),(ItemAnimation)animation,duration,mInterpolator);
+                } else if (animation instanceof ItemAnimation) {
+                    mAnimationController.start(holder.itemView,(ItemAnimation)animation,duration,mInterpolator);
+                } else if (duration > 0) {
+                    for (Animator anim : mAnimationController.getAnimators(holder.itemView,animation)) {
+                        startAnim(anim,holder.getLayoutPosition());
+                    }
+                } else {
+                    mAnimationController.finish(holder.itemView);
                 }
                 mLastPosition = holder.getLayoutPosition();
+            } else {
+                // a recycled view may still run the animation of its last position
+                mAnimationController.finish(holder.itemView);
             }
         }
     }
@@ -1716,8 +2556,34 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * set anim to start when loading
      */
     protected void startAnim(Animator anim,int index) {
-        anim.setDuration(mDuration).start();
         anim.setInterpolator(mInterpolator);
+        anim.setDuration(mAnimationController.getDuration(mDuration)).start();
+    }
+
+    /**
+     * Skip the entry animations while the list scrolls faster than {@code skipVelocity}, and run
+     * them at half the duration while a scroll frame takes longer than {@code frameBudgetMillis}.
+     * <p>
+     * 快速滑动时跳过 item 动画，掉帧时缩短动画时间
+     *
+     * @param skipVelocity px per second, 0 never skips, -1 for a quarter of the maximum fling velocity (default)
+     * @param frameBudgetMillis 0 never shortens the animations, 24 by default
+     */
+    public void setAnimationBudget(int skipVelocity,long frameBudgetMillis) {
+        mAnimationController.setBudget(skipVelocity,frameBudgetMillis);
+    }
+
+    /**
+     * Let the rows that are attached in the same frame enter one after the other, each one
+     * {@code delayMillis} after the row above it. All rows are driven by a single animator, this
+     * only applies to an {@link ItemAnimation}, which every built-in animation is.
+     * <p>
+     * 同一帧出现的 item 依次错开执行入场动画，由同一个动画驱动
+     *
+     * @param delayMillis 0 (default) starts every row right away
+     */
+    public void setLoadAnimationStagger(long delayMillis) {
+        mAnimationController.setStaggerDelay(delayMillis);
     }
 
     /**
@@ -1731,11 +2597,174 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         return mLayoutInflater.inflate(layoutResId,parent,false);
     }
 
+    /**
+     * Report the durations of create, bind, diff and load more and the notify calls to {@code metrics},
+     * e.g. a {@link com.chad.library.adapter.base.metrics.RecordingAdapterMetrics}. Without metrics nothing is timed.
+     * <p>
+     * 统计适配器各环节耗时，为 null 时不做任何计时
+     */
+    public void setAdapterMetrics(@Nullable AdapterMetrics metrics) {
+        mMetrics = metrics;
+        mLoadMoreRequestNanos = 0;
+    }
+
+    @Nullable
+    public AdapterMetrics getAdapterMetrics() {
+        return mMetrics;
+    }
+
+    private void reportLoadMoreFinished(int status) {
+        if (mMetrics != null && mLoading && mLoadMoreRequestNanos != 0) {
+            mMetrics.onLoadMoreFinished(status,System.nanoTime() - mLoadMoreRequestNanos);
+        }
+        mLoadMoreRequestNanos = 0;
+    }
+
     @FunctionalInterface
     public interface RequestLoadMoreListener {
         void onLoadMoreRequested();
     }
 
+    /**
+     * Builds the render model of an item (formatted text, spans, computed values) away from the
+     * main thread, see {@link #setItemPreparer(ItemPreparer,Executor,int)}.
+     */
+    public interface ItemPreparer<T> {
+        /**
+         * Called on the executor, only read the item. The model should be immutable.
+         *
+         * @return the model {@link #convert} applies to the views, may be null
+         */
+        @Nullable
+        Object prepare(@NonNull T item);
+    }
+
+    /**
+     * Split the binding into two stages: {@code preparer} builds a render model per item on the
+     * executor when items are inserted or changed, and for the rows ahead of the bound ones.
+     * {@link #convert} gets the model with {@link #getPreparedModel(Object)} and only applies it.
+     * The models are cached per item ({@code equals}/{@code hashCode}), least recently used ones are
+     * evicted. A notified change prepares the item again, call {@link #invalidatePreparedModels()}
+     * for changes of items in place that are only followed by notifyDataSetChanged().
+     * <p>
+     * 在后台线程预先生成 item 的显示模型，convert 中只需要把模型设置到 view 上
+     *
+     * @param preparer null turns the prepare stage off
+     * @param executor null for {@link AsyncTask#THREAD_POOL_EXECUTOR}
+     * @param cacheSize the number of models kept
+     */
+    public void setItemPreparer(@Nullable ItemPreparer<T> preparer,@Nullable Executor executor,int cacheSize) {
+        if (mPrepareStage != null) {
+            mPrepareStage.clear();
+        }
+        mPrepareStage = preparer == null ? null
+                : new PrepareStage<>(preparer,executor == null ? AsyncTask.THREAD_POOL_EXECUTOR : executor,cacheSize);
+        // a quarter of the cache ahead of the bound rows, the rest is for the visible ones
+        mPrefetchDistance = preparer == null ? 0 : Math.max(1,cacheSize / 4);
+        mLastBindPosition = RecyclerView.NO_POSITION;
+    }
+
+    public void setItemPreparer(@Nullable ItemPreparer<T> preparer) {
+        setItemPreparer(preparer,null,DEFAULT_PREPARED_MODEL_CACHE_SIZE);
+    }
+
+    /**
+     * @return the model of the item, prepared now if it is not ready yet, null without a preparer
+     */
+    @Nullable
+    public Object getPreparedModel(@NonNull T item) {
+        return mPrepareStage == null ? null : mPrepareStage.get(item);
+    }
+
+    public void invalidatePreparedModels() {
+        if (mPrepareStage != null) {
+            mPrepareStage.clear();
+        }
+    }
+
+    /**
+     * @param invalidate drop the cached models of the items first
+     */
+    private void schedulePrepare(int positionStart,int itemCount,boolean invalidate) {
+        if (mPrepareStage == null) {
+            return;
+        }
+        if (mDeferredPrepares != null) {
+            // a position of the list in between, the adapter still holds the old one
+            mDeferredPrepares.add(positionStart,itemCount,invalidate);
+            return;
+        }
+        // inserts of many items only prepare as many as the cache can keep
+        int end = Math.min(positionStart + Math.min(itemCount,mPrepareStage.getCacheSize()),getAdapterCount());
+        for (int i = Math.max(positionStart,0); i < end; i++) {
+            T item = peekItem(i);
+            if (invalidate) {
+                mPrepareStage.invalidate(item);
+            }
+            mPrepareStage.schedule(item);
+        }
+    }
+
+    /**
+     * Keep the rows a diff notifies until it has set the new list, see {@link DeferredPrepares}.
+     */
+    private void beginDeferredPrepares() {
+        if (mPrepareStage != null) {
+            mDeferredPrepares = new DeferredPrepares(mPrepareStage.getCacheSize());
+        }
+    }
+
+    private void endDeferredPrepares() {
+        DeferredPrepares deferred = mDeferredPrepares;
+        mDeferredPrepares = null;
+        if (deferred == null || mPrepareStage == null) {
+            return;
+        }
+        if (deferred.isOverflowed()) {
+            // the changed rows that were not kept would keep their stale models
+            mPrepareStage.clear();
+        }
+        for (int i = 0; i < deferred.size(); i++) {
+            T item = peekItem(deferred.getPosition(i));
+            if (deferred.isInvalidate(i)) {
+                mPrepareStage.invalidate(item);
+            }
+            mPrepareStage.schedule(item);
+        }
+    }
+
+    /**
+     * The item at the data position without the side effects of {@link #getItem(int)}, a PagedList
+     * is not asked to load around it. Prefetching through getItem would page in the whole source.
+     *
+     * @return null for a placeholder or a position out of range
+     */
+    @Nullable
+    T peekItem(int position) {
+        if (!usePaged) {
+            return getItem(position);
+        }
+        PagedList<T> list = getCurrentList();
+        return list == null || position < 0 || position >= list.size() ? null : list.get(position);
+    }
+
+    /**
+     * Prepare the rows ahead of the bound data position in the direction the binding moves.
+     */
+    private void prefetchPrepare(int position) {
+        int last = mLastBindPosition;
+        mLastBindPosition = position;
+        if (last == RecyclerView.NO_POSITION || position == last) {
+            return;
+        }
+        if (position > last) {
+            schedulePrepare(position + 1,mPrefetchDistance,false);
+        } else {
+            int start = Math.max(0,position - mPrefetchDistance);
+            schedulePrepare(start,position - start,false);
+        }
+    }
+
     /**
      * Set the view animation type.
      *
@@ -1824,6 +2853,47 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     protected void convertPayloads(@NonNull K helper,T item,@NonNull List<Object> payloads) {
     }
 
+    /**
+     * Partial bind for the masks of {@link BaseQuickDiffCallback#getChangeMask(Object,Object)} and
+     * {@link #notifyItemChangedMask(int,long)}. The masks of all updates since the last bind are
+     * OR-ed together. Binds the whole item by default.
+     * <p>
+     * 局部刷新，mask 为变化字段的位掩码
+     *
+     * @param helper A fully initialized helper.
+     * @param item The item that needs to be displayed.
+     * @param mask the bits of the changed fields, never 0
+     */
+    protected void convertPayloads(@NonNull K helper,T item,long mask) {
+        convert(helper,item);
+    }
+
+    /**
+     * {@link #notifyItemChanged(int,Object)} with a bitmask of the changed fields instead of a payload
+     * object, see {@link #convertPayloads(BaseViewHolder,Object,long)}.
+     *
+     * @param position data position
+     */
+    public void notifyItemChangedMask(@IntRange(from = 0) int position,long mask) {
+        T item = getItem(position);
+        if (item == null) {
+            return;
+        }
+        if (mDataObserverProxy.hasObservers()) {
+            // without an observer nothing binds the row and takes the mask
+            mChangeMasks.add(item,mask);
+        }
+        notifyItemChanged(position,ChangeMasks.PAYLOAD);
+    }
+
+    /**
+     * @return the pending masks, see {@link BaseQuickDiffCallback#setChangeMasks(ChangeMasks)}
+     */
+    @NonNull
+    public ChangeMasks getChangeMasks() {
+        return mChangeMasks;
+    }
+
     /**
      * get the specific view by position,e.g. getViewByPosition(2, R.id.textView)
      * <p>
@@ -1887,8 +2957,17 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * yourself.
      * @return the number of items that have been added.
      */
-    @SuppressWarnings("unchecked")
     public int expand(@IntRange(from = 0) int position,boolean animate,boolean shouldNotify) {
+        long start = beginPhase(PHASE_EXPAND,0);
+        try {
+            return expandItem(position,animate,shouldNotify);
+        } finally {
+            endPhase(PHASE_EXPAND,start,0,0);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int expandItem(int position,boolean animate,boolean shouldNotify) {
         position -= getHeaderLayoutCount();
 
         IExpandable expandable = getExpandableItem(position);
@@ -1909,11 +2988,10 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
             expandable.setExpanded(true);
             //            subItemCount += list.size();
         }
-        int parentPos = position + getHeaderLayoutCount();
         if (shouldNotify) {
             if (animate) {
-                notifyItemChanged(parentPos);
-                notifyItemRangeInserted(parentPos + 1,subItemCount);
+                notifyItemChanged(position);
+                notifyItemRangeInserted(position + 1,subItemCount);
             } else {
                 notifyDataSetChanged();
             }
@@ -1943,6 +3021,15 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
     }
 
     public int expandAll(int position,boolean animate,boolean notify) {
+        long start = beginPhase(PHASE_EXPAND_ALL,0);
+        try {
+            return expandAllItems(position,animate,notify);
+        } finally {
+            endPhase(PHASE_EXPAND_ALL,start,0,0);
+        }
+    }
+
+    private int expandAllItems(int position,boolean animate,boolean notify) {
         position -= getHeaderLayoutCount();
 
         T endItem = null;
@@ -1975,7 +3062,7 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
 
         if (notify) {
             if (animate) {
-                notifyItemRangeInserted(position + getHeaderLayoutCount() + 1,count);
+                notifyItemRangeInserted(position + 1,count);
             } else {
                 notifyDataSetChanged();
             }
@@ -2035,6 +3122,15 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
      * @return the number of subItems collapsed.
      */
     public int collapse(@IntRange(from = 0) int position,boolean animate,boolean notify) {
+        long start = beginPhase(PHASE_COLLAPSE,0);
+        try {
+            return collapseItem(position,animate,notify);
+        } finally {
+            endPhase(PHASE_COLLAPSE,start,0,0);
+        }
+    }
+
+    private int collapseItem(int position,boolean animate,boolean notify) {
         position -= getHeaderLayoutCount();
 
         IExpandable expandable = getExpandableItem(position);
@@ -2043,11 +3139,10 @@ public abstract class BaseQuickAdapter<T,K extends BaseViewHolder> extends Paged
         }
         int subItemCount = recursiveCollapse(position);
         expandable.setExpanded(false);
-        int parentPos = position + getHeaderLayoutCount();
         if (notify) {
             if (animate) {
-                notifyItemChanged(parentPos);
-                notifyItemRangeRemoved(parentPos + 1,subItemCount);
+                notifyItemChanged(position);
+                notifyItemRangeRemoved(position + 1,subItemCount);
             } else {
                 notifyDataSetChanged();
             }
@@ -5,17 +5,23 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 
 import com.chad.library.adapter.base.entity.SectionEntity;
+import com.chad.library.adapter.base.util.SectionAdapter;
+import com.chad.library.adapter.base.util.SectionIndex;
 
 import java.util.List;
 
 /**
  * https://github.com/CymChad/BaseRecyclerViewAdapterHelper
  */
-public abstract class BaseSectionQuickAdapter<T extends SectionEntity, K extends BaseViewHolder> extends BaseQuickAdapter<T, K> {
+public abstract class BaseSectionQuickAdapter<T extends SectionEntity, K extends BaseViewHolder> extends BaseQuickAdapter<T, K> implements SectionAdapter {
 
 
     protected int mSectionHeadResId;
     protected static final int SECTION_HEADER_VIEW = 0x00000444;
+    /**
+     * data positions of the section headers
+     */
+    private final SectionIndexDelegate mSections = new SectionIndexDelegate(this);
 
     /**
      * Same as QuickAdapter#QuickAdapter(Context,int) but with
@@ -67,4 +73,57 @@ public abstract class BaseSectionQuickAdapter<T extends SectionEntity, K extends
 
     protected abstract void convertHead(K helper, T item);
 
+    @Override
+    protected void onDataSetReset() {
+        mSections.onDataSetReset();
+    }
+
+    @Override
+    protected void onDataRangeChanged(int positionStart, int itemCount) {
+        mSections.onDataRangeChanged(positionStart, itemCount);
+    }
+
+    @Override
+    protected void onDataRangeInserted(int positionStart, int itemCount) {
+        mSections.onDataRangeInserted(positionStart, itemCount);
+    }
+
+    @Override
+    protected void onDataRangeRemoved(int positionStart, int itemCount) {
+        mSections.onDataRangeRemoved(positionStart, itemCount);
+    }
+
+    @Override
+    protected void onDataMoved(int fromPosition, int toPosition) {
+        mSections.onDataMoved(fromPosition, toPosition);
+    }
+
+    /**
+     * @return the index of the section headers by data position, kept in step with the notify calls
+     */
+    public SectionIndex getSectionIndex() {
+        return mSections.getSectionIndex();
+    }
+
+    @Override
+    public int getSectionCount() {
+        return mSections.getSectionCount();
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        return mSections.getSectionForPosition(position);
+    }
+
+    @Override
+    public int getSectionHeaderPosition(int section) {
+        return mSections.getSectionHeaderPosition(section);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void bindSectionHeader(@NonNull BaseViewHolder holder, int position) {
+        convertHead((K) holder, getItem(position));
+    }
+
 }
@@ -38,6 +38,7 @@ import androidx.annotation.IdRes;
 import androidx.annotation.StringRes;
 import androidx.recyclerview.widget.RecyclerView;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -80,9 +81,9 @@ public class BaseViewHolder extends RecyclerView.ViewHolder {
     public BaseViewHolder(final View view) {
         super(view);
         this.views = new SparseArray<>();
-        this.childClickViewIds = new LinkedHashSet<>();
-        this.itemChildLongClickViewIds = new LinkedHashSet<>();
-        this.nestViews = new HashSet<>();
+        this.childClickViewIds = new IdSet();
+        this.itemChildLongClickViewIds = new IdSet();
+        this.nestViews = new IdSet();
     }
 
     public HashSet<Integer> getItemChildLongClickViewIds() {
@@ -93,6 +94,93 @@ public class BaseViewHolder extends RecyclerView.ViewHolder {
         return childClickViewIds;
     }
 
+    /**
+     * The id sets as arrays, for hit testing without iterators and boxing. An array is rebuilt
+     * after any change of its set, also through the sets returned by the getters.
+     */
+    public int[] getChildClickViewIdArray() {
+        return ((IdSet) childClickViewIds).toIdArray();
+    }
+
+    public int[] getItemChildLongClickViewIdArray() {
+        return ((IdSet) itemChildLongClickViewIds).toIdArray();
+    }
+
+    public boolean isNestView(@IdRes int viewId) {
+        for (int id : ((IdSet) nestViews).toIdArray()) {
+            if (id == viewId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A set of view ids that keeps its ids as an int array, dropped by every change of the set.
+     */
+    private static final class IdSet extends LinkedHashSet<Integer> {
+        private int[] mArray;
+
+        @Override
+        public boolean add(Integer id) {
+            boolean added = super.add(id);
+            if (added) {
+                mArray = null;
+            }
+            return added;
+        }
+
+        @Override
+        public boolean remove(Object id) {
+            boolean removed = super.remove(id);
+            if (removed) {
+                mArray = null;
+            }
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            mArray = null;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            // removeAll, retainAll and the like remove through the iterator
+            final Iterator<Integer> iterator = super.iterator();
+            return new Iterator<Integer>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Integer next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    mArray = null;
+                }
+            };
+        }
+
+        int[] toIdArray() {
+            if (mArray == null) {
+                int[] array = new int[size()];
+                int i = 0;
+                for (Integer id : this) {
+                    array[i++] = id;
+                }
+                mArray = array;
+            }
+            return mArray;
+        }
+    }
+
 
     /**
      * Will set the text of a TextView.
@@ -0,0 +1,481 @@
+package com.chad.library.adapter.base;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.chad.library.adapter.base.diff.BaseQuickDiffCallback;
+import com.chad.library.adapter.base.diff.ChunkedDiff;
+import com.chad.library.adapter.base.util.SectionAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A section adapter over a plain {@code List<T>}, the section headers are not part of the data.
+ * <p>
+ * The sections are given as the sorted indices of the first item of every section, or derived from
+ * a {@link SectionKey}: a new section starts wherever the key of an item differs from the key of the
+ * item before it. A header row is put in front of the first item of every section while mapping
+ * positions, both directions are a binary search over the section starts.
+ * <p>
+ * The data positions of this adapter count the header rows ({@link #getItem(int)} returns null for
+ * them), the positions passed to the data methods ({@link #addData(int, Object)},
+ * {@link #remove(int)}, {@link #setData(int, Object)}) are indices into {@link #getData()}.
+ * Items inserted in front of a section start join the section before it. PagedList, expandable
+ * items and diffing are not supported, {@code setNewDiffData} falls back to {@link #setNewData(List)}.
+ * <p>
+ * 不需要 SectionEntity 包装的分组 adapter，分组头是虚拟的行
+ */
+public abstract class BaseVirtualSectionQuickAdapter<T, K extends BaseViewHolder> extends BaseQuickAdapter<T, K> implements SectionAdapter {
+
+    public interface SectionKey<T> {
+        /**
+         * @return the key of the section of the item, compared with {@link Object#equals(Object)}
+         */
+        Object getSectionKey(T item);
+    }
+
+    protected static final int SECTION_HEADER_VIEW = 0x00000444;
+
+    protected int mSectionHeadResId;
+    @Nullable
+    private SectionKey<T> mSectionKey;
+    /**
+     * index of the first item of every section, strictly increasing
+     */
+    private int[] mSectionStarts = new int[16];
+    private int mSectionCount;
+
+    public BaseVirtualSectionQuickAdapter(int layoutResId, int sectionHeadResId, @Nullable List<T> data, @Nullable int[] sectionStarts) {
+        super(layoutResId, data);
+        this.mSectionHeadResId = sectionHeadResId;
+        setSectionStarts(sectionStarts, mData.size());
+    }
+
+    public BaseVirtualSectionQuickAdapter(int layoutResId, int sectionHeadResId, @Nullable List<T> data, @NonNull SectionKey<T> sectionKey) {
+        super(layoutResId, data);
+        this.mSectionHeadResId = sectionHeadResId;
+        this.mSectionKey = sectionKey;
+        rebuildSections(mData);
+    }
+
+    protected abstract void convertHead(K helper, int section, T firstItem);
+
+    /**
+     * Set new data together with the index of the first item of every section.
+     */
+    public void setNewData(@Nullable List<T> data, @Nullable int[] sectionStarts) {
+        List<T> list = data == null ? new ArrayList<T>() : data;
+        mSectionKey = null;
+        setSectionStarts(sectionStarts, list.size());
+        super.setNewData(list);
+    }
+
+    /**
+     * With a {@link SectionKey} the sections are derived from the new data,
+     * otherwise the section starts inside the new data are kept.
+     */
+    @Override
+    public void setNewData(@Nullable List<T> data) {
+        List<T> list = data == null ? new ArrayList<T>() : data;
+        if (mSectionKey != null) {
+            rebuildSections(list);
+        } else {
+            truncateSections(list.size());
+        }
+        super.setNewData(list);
+    }
+
+    @Override
+    public void replaceData(@NonNull Collection<? extends T> data) {
+        if (data != mData) {
+            mData.clear();
+            mData.addAll(data);
+        }
+        if (mSectionKey != null) {
+            rebuildSections(mData);
+        } else {
+            truncateSections(mData.size());
+        }
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void setNewDiffData(@NonNull BaseQuickDiffCallback<T> baseQuickDiffCallback, boolean detectMoves) {
+        setNewData(baseQuickDiffCallback.getNewList());
+    }
+
+    @Override
+    public void setNewDiffData(@NonNull DiffUtil.DiffResult diffResult, @NonNull List<T> newData) {
+        setNewData(newData);
+    }
+
+    @Override
+    public void setNewDiffData(@NonNull ChunkedDiff.Result diffResult, @NonNull List<T> newData) {
+        setNewData(newData);
+    }
+
+    @Override
+    public void addData(@IntRange(from = 0) int position, @NonNull T data) {
+        mData.add(position, data);
+        onItemsInserted(position, 1);
+    }
+
+    @Override
+    public void addData(@NonNull T data) {
+        mData.add(data);
+        onItemsInserted(mData.size() - 1, 1);
+    }
+
+    @Override
+    public void addData(@IntRange(from = 0) int position, @NonNull Collection<? extends T> newData) {
+        mData.addAll(position, newData);
+        onItemsInserted(position, newData.size());
+    }
+
+    @Override
+    public void addData(@NonNull Collection<? extends T> newData) {
+        mData.addAll(newData);
+        onItemsInserted(mData.size() - newData.size(), newData.size());
+    }
+
+    @Override
+    public void remove(@IntRange(from = 0) int position) {
+        int row = getPositionForItem(position);
+        int section = getSectionOfItem(position);
+        // the only item of its section goes together with the header
+        int removed = section >= 0 && getSectionItemCount(section) == 1 ? 2 : 1;
+        // the header shows the first item of its section
+        boolean headerChanged = removed == 1 && section >= 0 && mSectionStarts[section] == position;
+        int sectionCount = mSectionCount;
+        mData.remove(position);
+        shiftRemoved(position, 1);
+        if (!rescan(position, position + 1) || mSectionCount != sectionCount - (removed - 1)) {
+            notifyDataSetChanged();
+            return;
+        }
+        row -= removed - 1;
+        notifyItemRangeRemoved(row, removed);
+        if (headerChanged) {
+            notifyItemChanged(getSectionHeaderPosition(section));
+        }
+    }
+
+    @Override
+    public void setData(@IntRange(from = 0) int index, @NonNull T data) {
+        mData.set(index, data);
+        if (!rescan(index, index + 2)) {
+            notifyDataSetChanged();
+            return;
+        }
+        notifyItemChanged(getPositionForItem(index));
+        int section = getSectionOfItem(index);
+        if (section >= 0 && mSectionStarts[section] == index) {
+            notifyItemChanged(getSectionHeaderPosition(section));
+        }
+    }
+
+    @Override
+    public int getAdapterCount() {
+        return mData.size() + mSectionCount;
+    }
+
+    /**
+     * @param position data position, header rows included
+     * @return the item of the row, null for a section header
+     */
+    @Nullable
+    @Override
+    public T getItem(@IntRange(from = 0) int position) {
+        int index = getItemIndex(position);
+        return index >= 0 && index < mData.size() ? mData.get(index) : null;
+    }
+
+    @Override
+    protected int getDefItemViewType(int position) {
+        if (isSectionHeader(position)) {
+            return SECTION_HEADER_VIEW;
+        }
+        return super.getDefItemViewType(position);
+    }
+
+    @Override
+    protected K onCreateDefViewHolder(ViewGroup parent, int viewType) {
+        if (viewType == SECTION_HEADER_VIEW)
+            return createBaseViewHolder(getItemView(mSectionHeadResId, parent));
+
+        return super.onCreateDefViewHolder(parent, viewType);
+    }
+
+    @Override
+    protected boolean isFixedViewType(int type) {
+        return super.isFixedViewType(type) || type == SECTION_HEADER_VIEW;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull K holder, int position) {
+        if (holder.getItemViewType() == SECTION_HEADER_VIEW) {
+            setFullSpan(holder);
+            bindHead(holder, position - getDataOffset());
+        } else {
+            super.onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull K holder, int position, @NonNull List<Object> payloads) {
+        if (holder.getItemViewType() == SECTION_HEADER_VIEW) {
+            setFullSpan(holder);
+            bindHead(holder, position - getDataOffset());
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void bindSectionHeader(@NonNull BaseViewHolder holder, int position) {
+        bindHead((K) holder, position);
+    }
+
+    private void bindHead(K holder, int position) {
+        int section = getSectionForPosition(position);
+        int start = mSectionStarts[section];
+        convertHead(holder, section, start < mData.size() ? mData.get(start) : null);
+    }
+
+    @Override
+    public int getSectionCount() {
+        return mSectionCount;
+    }
+
+    /**
+     * @param position data position, header rows included
+     * @return the section of the row, -1 for items in front of the first section
+     */
+    @Override
+    public int getSectionForPosition(int position) {
+        int low = 0;
+        int high = mSectionCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mSectionStarts[mid] + mid <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * @return the data position of the header row of the section
+     */
+    @Override
+    public int getSectionHeaderPosition(int section) {
+        return mSectionStarts[section] + section;
+    }
+
+    public boolean isSectionHeader(int position) {
+        int section = getSectionForPosition(position);
+        return section >= 0 && getSectionHeaderPosition(section) == position;
+    }
+
+    /**
+     * @param position data position, header rows included
+     * @return the index of the item in {@link #getData()}, -1 for a header row
+     */
+    public int getItemIndex(int position) {
+        int section = getSectionForPosition(position);
+        if (section >= 0 && getSectionHeaderPosition(section) == position) {
+            return -1;
+        }
+        return position - section - 1;
+    }
+
+    /**
+     * @param index index of the item in {@link #getData()}
+     * @return the data position of the item
+     */
+    public int getPositionForItem(int index) {
+        return index + getSectionOfItem(index) + 1;
+    }
+
+    /**
+     * @param index index of the item in {@link #getData()}
+     * @return the section of the item, -1 if it is in front of the first section
+     */
+    public int getSectionOfItem(int index) {
+        int low = 0;
+        int high = mSectionCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mSectionStarts[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * @return the index of the item in its section
+     */
+    public int getIndexInSection(int index) {
+        int section = getSectionOfItem(index);
+        return section < 0 ? index : index - mSectionStarts[section];
+    }
+
+    public int getSectionItemCount(int section) {
+        int end = section + 1 < mSectionCount ? mSectionStarts[section + 1] : mData.size();
+        return end - mSectionStarts[section];
+    }
+
+    private void onItemsInserted(int index, int count) {
+        if (count <= 0) {
+            return;
+        }
+        int sectionCount = mSectionCount;
+        boolean append = index + count == mData.size();
+        int rowCount = getAdapterCount() - count;
+        shiftInserted(index, count);
+        boolean stable = rescan(index, index + count + 1);
+        if (append) {
+            // new sections can only start behind the old rows
+            notifyItemRangeInserted(rowCount, getAdapterCount() - rowCount);
+        } else if (stable && mSectionCount == sectionCount) {
+            notifyItemRangeInserted(getPositionForItem(index), count);
+        } else {
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Look at the items in [from, to) with the {@link SectionKey}.
+     *
+     * @return true if no section start was added or removed
+     */
+    private boolean rescan(int from, int to) {
+        if (mSectionKey == null) {
+            return true;
+        }
+        int start = Math.max(from, 0);
+        int end = Math.min(to, mData.size());
+        if (start >= end) {
+            return true;
+        }
+        int first = getSectionOfItem(start - 1) + 1;
+        int last = getSectionOfItem(end - 1) + 1;
+        boolean stable = true;
+        int found = 0;
+        for (int i = start; i < end; i++) {
+            if (isSectionStart(mData, i)) {
+                if (first + found >= last || mSectionStarts[first + found] != i) {
+                    stable = false;
+                }
+                found++;
+            }
+        }
+        if (stable && found == last - first) {
+            return true;
+        }
+        removeSections(first, last);
+        for (int i = start; i < end; i++) {
+            if (isSectionStart(mData, i)) {
+                insertSection(first++, i);
+            }
+        }
+        return false;
+    }
+
+    private boolean isSectionStart(List<T> data, int index) {
+        if (index == 0) {
+            return true;
+        }
+        Object key = mSectionKey.getSectionKey(data.get(index));
+        Object previous = mSectionKey.getSectionKey(data.get(index - 1));
+        return key == null ? previous != null : !key.equals(previous);
+    }
+
+    private void rebuildSections(List<T> data) {
+        mSectionCount = 0;
+        for (int i = 0; i < data.size(); i++) {
+            if (isSectionStart(data, i)) {
+                insertSection(mSectionCount, i);
+            }
+        }
+    }
+
+    private void setSectionStarts(@Nullable int[] sectionStarts, int size) {
+        mSectionCount = 0;
+        if (sectionStarts == null) {
+            return;
+        }
+        for (int i = 0; i < sectionStarts.length; i++) {
+            int start = sectionStarts[i];
+            if (start < 0 || start >= size || (i > 0 && start <= sectionStarts[i - 1])) {
+                throw new IllegalArgumentException("section starts have to be strictly increasing indices of the data, got "
+                        + Arrays.toString(sectionStarts) + " for " + size + " items");
+            }
+            insertSection(mSectionCount, start);
+        }
+    }
+
+    private void truncateSections(int size) {
+        while (mSectionCount > 0 && mSectionStarts[mSectionCount - 1] >= size) {
+            mSectionCount--;
+        }
+    }
+
+    private void shiftInserted(int index, int count) {
+        for (int i = getSectionOfItem(index - 1) + 1; i < mSectionCount; i++) {
+            // the inserted items join the section in front of them, the first one if there is none
+            if (mSectionStarts[i] > 0) {
+                mSectionStarts[i] += count;
+            }
+        }
+    }
+
+    private void shiftRemoved(int index, int count) {
+        int end = index + count;
+        int write = 0;
+        for (int i = 0; i < mSectionCount; i++) {
+            int start = mSectionStarts[i];
+            if (start > index) {
+                start = start >= end ? start - count : index;
+            }
+            if (start >= mData.size()) {
+                // the last sections are empty now
+                break;
+            }
+            if (write > 0 && mSectionStarts[write - 1] == start) {
+                // the section in front is empty now
+                write--;
+            }
+            mSectionStarts[write++] = start;
+        }
+        mSectionCount = write;
+    }
+
+    private void removeSections(int fromIndex, int toIndex) {
+        System.arraycopy(mSectionStarts, toIndex, mSectionStarts, fromIndex, mSectionCount - toIndex);
+        mSectionCount -= toIndex - fromIndex;
+    }
+
+    private void insertSection(int index, int start) {
+        if (mSectionCount == mSectionStarts.length) {
+            mSectionStarts = Arrays.copyOf(mSectionStarts, mSectionCount * 2);
+        }
+        System.arraycopy(mSectionStarts, index, mSectionStarts, index + 1, mSectionCount - index);
+        mSectionStarts[index] = start;
+        mSectionCount++;
+    }
+
+}
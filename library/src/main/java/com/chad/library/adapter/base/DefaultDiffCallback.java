@@ -2,18 +2,52 @@ package com.chad.library.adapter.base;
 
 import android.annotation.SuppressLint;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.DiffUtil;
 
+import com.chad.library.adapter.base.diff.ContentHashCache;
+
 public class DefaultDiffCallback<T> extends DiffUtil.ItemCallback<T> {
 
+    @Nullable
+    private final ContentHashCache mContentHashes;
+
+    public DefaultDiffCallback() {
+        mContentHashes = null;
+    }
+
+    /**
+     * Content hash mode: the content hash of every item is computed once and compared before
+     * {@code equals}, which is only called if the hashes match. For items that are not changed in
+     * place, see {@link ContentHashCache}.
+     *
+     * @param maxCachedHashes the number of hashes kept, e.g. twice the page size times the pages kept
+     */
+    public DefaultDiffCallback(int maxCachedHashes) {
+        mContentHashes = new ContentHashCache(maxCachedHashes);
+    }
+
     @Override
     public boolean areItemsTheSame(@NonNull T t,@NonNull T t1) {
-        return t.equals(t1);
+        return mayBeEqual(t,t1) && t.equals(t1);
     }
 
     @SuppressLint("DiffUtilEquals")
     @Override
     public boolean areContentsTheSame(@NonNull T t,@NonNull T t1) {
-        return t.equals(t1);
+        return mayBeEqual(t,t1) && t.equals(t1);
+    }
+
+    /**
+     * Drop the cached content hashes, e.g. after items were changed in place.
+     */
+    public void clearContentHashes() {
+        if (mContentHashes != null) {
+            mContentHashes.clear();
+        }
+    }
+
+    private boolean mayBeEqual(T t,T t1) {
+        return mContentHashes == null || mContentHashes.mayBeEqual(t,t1);
     }
-}
\ No newline at end of file
+}
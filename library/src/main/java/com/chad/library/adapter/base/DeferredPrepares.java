@@ -0,0 +1,101 @@
+package com.chad.library.adapter.base;
+
+import java.util.Arrays;
+
+/**
+ * The rows a diff asks to prepare while it is dispatched. The notify positions of a diff are
+ * positions in a list between the old and the new one, while the adapter still holds the old list,
+ * so they are kept, shifted along with the later notifies and resolved to items once the new list
+ * is set. At most {@code capacity} rows are kept, see {@link #isOverflowed()}.
+ */
+final class DeferredPrepares {
+
+    private final int mCapacity;
+    private int[] mPositions = new int[16];
+    private boolean[] mInvalidate = new boolean[16];
+    private int mSize;
+    private boolean mOverflowed;
+
+    DeferredPrepares(int capacity) {
+        mCapacity = capacity;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    int getPosition(int index) {
+        return mPositions[index];
+    }
+
+    /**
+     * @return whether the cached model of the row has to be dropped first
+     */
+    boolean isInvalidate(int index) {
+        return mInvalidate[index];
+    }
+
+    /**
+     * @return whether rows were dropped for the capacity, their models may be stale
+     */
+    boolean isOverflowed() {
+        return mOverflowed;
+    }
+
+    void add(int positionStart,int itemCount,boolean invalidate) {
+        for (int i = 0; i < itemCount; i++) {
+            if (mSize == mCapacity) {
+                mOverflowed = true;
+                return;
+            }
+            if (mSize == mPositions.length) {
+                mPositions = Arrays.copyOf(mPositions,mSize * 2);
+                mInvalidate = Arrays.copyOf(mInvalidate,mSize * 2);
+            }
+            mPositions[mSize] = positionStart + i;
+            mInvalidate[mSize] = invalidate;
+            mSize++;
+        }
+    }
+
+    void onInserted(int positionStart,int itemCount) {
+        for (int i = 0; i < mSize; i++) {
+            if (mPositions[i] >= positionStart) {
+                mPositions[i] += itemCount;
+            }
+        }
+    }
+
+    void onRemoved(int positionStart,int itemCount) {
+        int end = positionStart + itemCount;
+        int write = 0;
+        for (int i = 0; i < mSize; i++) {
+            int position = mPositions[i];
+            if (position >= positionStart && position < end) {
+                continue;
+            }
+            mPositions[write] = position >= end ? position - itemCount : position;
+            mInvalidate[write] = mInvalidate[i];
+            write++;
+        }
+        mSize = write;
+    }
+
+    void onMoved(int fromPosition,int toPosition) {
+        for (int i = 0; i < mSize; i++) {
+            int position = mPositions[i];
+            if (position == fromPosition) {
+                mPositions[i] = toPosition;
+            } else if (fromPosition < toPosition && position > fromPosition && position <= toPosition) {
+                mPositions[i] = position - 1;
+            } else if (toPosition < fromPosition && position >= toPosition && position < fromPosition) {
+                mPositions[i] = position + 1;
+            }
+        }
+    }
+
+    void clear() {
+        mSize = 0;
+        mOverflowed = false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.chad.library.adapter.base;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.chad.library.adapter.base.listener.OnItemDragListener;
+import com.chad.library.adapter.base.listener.OnItemDragMovedListener;
+
+import java.util.List;
+
+/**
+ * The moves of one drag gesture, shared by {@link BaseItemDraggableAdapter} and {@link DraggableController}.
+ * <p>
+ * A move is one remove and one insert on the data list instead of a swap per position in between.
+ * The single steps are coalesced into the net move of the dragged item, an {@link OnItemDragListener}
+ * that is also an {@link OnItemDragMovedListener} gets it when the drag ends, and it is recorded
+ * in the {@link DragMoveLog} if there is one.
+ */
+final class DragGesture {
+
+    private int mStart = RecyclerView.NO_POSITION;
+    private int mCurrent = RecyclerView.NO_POSITION;
+
+    /**
+     * Move the item at {@code from} to {@code to}, the items in between shift by one.
+     */
+    static <T> void move(List<T> data,int from,int to) {
+        if (from != to) {
+            data.add(to,data.remove(from));
+        }
+    }
+
+    void start(int position) {
+        mStart = position;
+        mCurrent = position;
+    }
+
+    void onMoved(int from,int to) {
+        if (mStart == RecyclerView.NO_POSITION) {
+            // moved without a drag start, e.g. through onItemDragMoving(int, int)
+            start(from);
+        }
+        if (from == mCurrent) {
+            mCurrent = to;
+        }
+    }
+
+    /**
+     * Record the net move in the log, report it to the listener if it asks for it and forget the gesture.
+     */
+    @SuppressWarnings("unchecked")
+    void end(RecyclerView.ViewHolder viewHolder,OnItemDragListener listener,List data,DragMoveLog log) {
+        if (mStart != RecyclerView.NO_POSITION && mStart != mCurrent && mCurrent < data.size()) {
+            if (log != null) {
+                log.record(data,mStart,mCurrent);
+            }
+            if (listener instanceof OnItemDragMovedListener) {
+                ((OnItemDragMovedListener)listener).onItemDragMoved(viewHolder,mStart,mCurrent);
+            }
+        }
+        mStart = RecyclerView.NO_POSITION;
+        mCurrent = RecyclerView.NO_POSITION;
+    }
+}
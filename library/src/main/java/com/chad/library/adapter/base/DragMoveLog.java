@@ -0,0 +1,120 @@
+package com.chad.library.adapter.base;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The reorders made by dragging, one net move per drag gesture, identified by item keys.
+ * <p>
+ * Set it with {@link BaseItemDraggableAdapter#setDragMoveLog(DragMoveLog)} or
+ * {@link DraggableController#setDragMoveLog(DragMoveLog)}, and send the moves of {@link #drain()}
+ * as a reorder patch. Replaying them in order, each one placing the item of {@link Move#fromKey}
+ * behind the item of {@link Move#anchorKey}, gives the order of the list. A move is dropped when
+ * the same item is moved again and no later move is anchored on it.
+ * <p>
+ * 拖拽排序的记录，每次拖拽一条，可以批量取出用于同步排序
+ */
+public class DragMoveLog<T> {
+
+    public interface KeyProvider<T> {
+        /**
+         * @return a stable key of the item, e.g. its id
+         */
+        Object getKey(T item);
+    }
+
+    public static final class Move {
+        /**
+         * key of the moved item
+         */
+        public final Object fromKey;
+        /**
+         * key of the item that was at the target position before the move
+         */
+        public final Object toKey;
+        /**
+         * key of the item the moved item is behind now, null if it is the first item
+         */
+        @Nullable
+        public final Object anchorKey;
+        public final int fromPosition;
+        public final int toPosition;
+
+        Move(Object fromKey, Object toKey, @Nullable Object anchorKey, int fromPosition, int toPosition) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+            this.anchorKey = anchorKey;
+            this.fromPosition = fromPosition;
+            this.toPosition = toPosition;
+        }
+
+        @Override
+        public String toString() {
+            return "Move{" + fromKey + " -> " + toKey + " after " + anchorKey + "}";
+        }
+    }
+
+    private final KeyProvider<T> mKeyProvider;
+    private final ArrayList<Move> mMoves = new ArrayList<>();
+
+    public DragMoveLog(@NonNull KeyProvider<T> keyProvider) {
+        mKeyProvider = keyProvider;
+    }
+
+    /**
+     * Record the net move of a drag gesture, {@code data} has the item at {@code to} already.
+     */
+    void record(List<T> data, int from, int to) {
+        Object fromKey = mKeyProvider.getKey(data.get(to));
+        // the item that was at the target position shifted by one towards the start position
+        Object toKey = mKeyProvider.getKey(data.get(from < to ? to - 1 : to + 1));
+        Object anchorKey = to > 0 ? mKeyProvider.getKey(data.get(to - 1)) : null;
+        for (int i = mMoves.size() - 1; i >= 0; i--) {
+            Move move = mMoves.get(i);
+            if (equal(move.anchorKey, fromKey)) {
+                break;
+            }
+            if (equal(move.fromKey, fromKey)) {
+                mMoves.remove(i);
+                break;
+            }
+        }
+        mMoves.add(new Move(fromKey, toKey, anchorKey, from, to));
+    }
+
+    public int size() {
+        return mMoves.size();
+    }
+
+    public boolean isEmpty() {
+        return mMoves.isEmpty();
+    }
+
+    /**
+     * @return the recorded moves in order, the log keeps them
+     */
+    public List<Move> getMoves() {
+        return Collections.unmodifiableList(mMoves);
+    }
+
+    /**
+     * @return the recorded moves in order, the log is empty afterwards
+     */
+    public List<Move> drain() {
+        List<Move> moves = new ArrayList<>(mMoves);
+        mMoves.clear();
+        return moves;
+    }
+
+    public void clear() {
+        mMoves.clear();
+    }
+
+    private static boolean equal(@Nullable Object a, @Nullable Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -5,6 +5,7 @@ import android.graphics.Canvas;
 import android.view.MotionEvent;
 import android.view.View;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.view.MotionEventCompat;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.RecyclerView;
@@ -13,11 +14,10 @@ import com.chad.library.adapter.base.callback.ItemDragAndSwipeCallback;
 import com.chad.library.adapter.base.listener.IDraggableListener;
 import com.chad.library.adapter.base.listener.OnItemDragListener;
 import com.chad.library.adapter.base.listener.OnItemSwipeListener;
-import java.util.Collections;
 
 import static com.chad.library.adapter.base.BaseQuickAdapter.EMPTY_VIEW;
-import static com.chad.library.adapter.base.BaseQuickAdapter.FOOTER_VIEW;
-import static com.chad.library.adapter.base.BaseQuickAdapter.HEADER_VIEW;
+import static com.chad.library.adapter.base.BaseQuickAdapter.isFooterViewType;
+import static com.chad.library.adapter.base.BaseQuickAdapter.isHeaderViewType;
 import static com.chad.library.adapter.base.BaseQuickAdapter.LOADING_VIEW;
 
 /**
@@ -48,6 +48,8 @@ public class DraggableController implements IDraggableListener {
     private View.OnLongClickListener mOnToggleViewLongClickListener;
 
     private BaseQuickAdapter mAdapter;
+    private final DragGesture mDragGesture = new DragGesture();
+    private DragMoveLog mDragMoveLog;
 
     public DraggableController(BaseQuickAdapter adapter) {
         mAdapter = adapter;
@@ -56,8 +58,8 @@ public class DraggableController implements IDraggableListener {
     public void initView(BaseViewHolder holder) {
         int viewType = holder.getItemViewType();
 
-        if (mItemTouchHelper != null && itemDragEnabled && viewType != LOADING_VIEW && viewType != HEADER_VIEW
-                && viewType != EMPTY_VIEW && viewType != FOOTER_VIEW) {
+        if (mItemTouchHelper != null && itemDragEnabled && viewType != LOADING_VIEW && !isHeaderViewType(viewType)
+                && viewType != EMPTY_VIEW && !isFooterViewType(viewType)) {
             if (hasToggleView()) {
                 View toggleView = holder.getView(mToggleViewId);
                 if (toggleView != null) {
@@ -199,11 +201,12 @@ public class DraggableController implements IDraggableListener {
     }
 
     public int getViewHolderPosition(RecyclerView.ViewHolder viewHolder) {
-        return viewHolder.getAdapterPosition() - mAdapter.getHeaderLayoutCount();
+        return viewHolder.getAdapterPosition() - mAdapter.getDataOffset();
     }
 
     @Override
     public void onItemDragStart(RecyclerView.ViewHolder viewHolder) {
+        mDragGesture.start(getViewHolderPosition(viewHolder));
         if (mOnItemDragListener != null && itemDragEnabled) {
             mOnItemDragListener.onItemDragStart(viewHolder, getViewHolderPosition(viewHolder));
         }
@@ -215,16 +218,9 @@ public class DraggableController implements IDraggableListener {
         int to = getViewHolderPosition(target);
 
         if (inRange(from) && inRange(to)) {
-            if (from < to) {
-                for (int i = from; i < to; i++) {
-                    Collections.swap(mAdapter.getData(), i, i + 1);
-                }
-            } else {
-                for (int i = from; i > to; i--) {
-                    Collections.swap(mAdapter.getData(), i, i - 1);
-                }
-            }
-            mAdapter.notifyItemMoved(source.getAdapterPosition(), target.getAdapterPosition());
+            DragGesture.move(mAdapter.getData(), from, to);
+            mDragGesture.onMoved(from, to);
+            mAdapter.notifyMoved(source.getAdapterPosition(), target.getAdapterPosition());
         }
 
         if (mOnItemDragListener != null && itemDragEnabled) {
@@ -234,11 +230,57 @@ public class DraggableController implements IDraggableListener {
 
     @Override
     public void onItemDragEnd(RecyclerView.ViewHolder viewHolder) {
+        mDragGesture.end(viewHolder, itemDragEnabled ? mOnItemDragListener : null, mAdapter.getData(), mDragMoveLog);
         if (mOnItemDragListener != null && itemDragEnabled) {
             mOnItemDragListener.onItemDragEnd(viewHolder, getViewHolderPosition(viewHolder));
         }
     }
 
+    /**
+     * Record the net move of every drag gesture, see {@link DragMoveLog}.
+     *
+     * @param log null stops recording
+     */
+    public void setDragMoveLog(@Nullable DragMoveLog log) {
+        mDragMoveLog = log;
+    }
+
+    @Nullable
+    public DragMoveLog getDragMoveLog() {
+        return mDragMoveLog;
+    }
+
+    /**
+     * Keep swiped items as hidden tombstones and remove them together once no item was swiped
+     * for {@code quietPeriodMillis}, an undo in between restores the row in place.
+     * See {@link SwipeDismissBuffer}.
+     *
+     * @throws IllegalStateException if the adapter uses a PagedList
+     */
+    public SwipeDismissBuffer enableSwipeDismissBuffer(long quietPeriodMillis) {
+        if (mAdapter.mSwipeDismissBuffer == null) {
+            mAdapter.mSwipeDismissBuffer = new SwipeDismissBuffer(mAdapter, quietPeriodMillis);
+        } else {
+            mAdapter.mSwipeDismissBuffer.setQuietPeriod(quietPeriodMillis);
+        }
+        return mAdapter.mSwipeDismissBuffer;
+    }
+
+    /**
+     * Remove the pending tombstones now, swiped items are removed right away again.
+     */
+    public void disableSwipeDismissBuffer() {
+        if (mAdapter.mSwipeDismissBuffer != null) {
+            mAdapter.mSwipeDismissBuffer.commit();
+            mAdapter.mSwipeDismissBuffer = null;
+        }
+    }
+
+    @Nullable
+    public SwipeDismissBuffer getSwipeDismissBuffer() {
+        return mAdapter.mSwipeDismissBuffer;
+    }
+
     public void setOnItemSwipeListener(OnItemSwipeListener listener) {
         mOnItemSwipeListener = listener;
     }
@@ -266,8 +308,12 @@ public class DraggableController implements IDraggableListener {
         int pos = getViewHolderPosition(viewHolder);
 
         if (inRange(pos)) {
-            mAdapter.getData().remove(pos);
-            mAdapter.notifyItemRemoved(viewHolder.getAdapterPosition());
+            if (mAdapter.mSwipeDismissBuffer != null) {
+                mAdapter.mSwipeDismissBuffer.dismiss(pos);
+            } else {
+                mAdapter.getData().remove(pos);
+                mAdapter.notifyRemoved(viewHolder.getAdapterPosition());
+            }
         }
     }
 
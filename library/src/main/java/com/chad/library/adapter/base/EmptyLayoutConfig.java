@@ -4,11 +4,19 @@ import androidx.annotation.IdRes;
 import androidx.annotation.LayoutRes;
 
 /**
+ * The group ids may point to {@link android.view.ViewStub}s, a state is then only inflated the first
+ * time it is shown. Set it per adapter with {@link BaseQuickAdapter#setEmptyLayoutConfig(EmptyLayoutConfig)},
+ * {@link BaseQuickAdapter#sEmptyLayoutConfig} is the default of every adapter.
+ *
  * @author XQ Yang
  * @describe
  * @date 5/9/2019  3:01 PM
  */
 public class EmptyLayoutConfig {
+    public static final int STATE_LOADING = 0;
+    public static final int STATE_EMPTY = 1;
+    public static final int STATE_ERROR = 2;
+
     @LayoutRes
     public int layoutID;
     @IdRes
@@ -19,12 +27,22 @@ public class EmptyLayoutConfig {
     public int errorGroupId;
     @IdRes
     public int retryId;
+    /**
+     * The layout is only inflated if the adapter is still empty this long after
+     * {@link BaseQuickAdapter#bindToRecyclerView}, 0 inflates it right away.
+     */
+    public long graceMillis;
 
     public EmptyLayoutConfig(int layoutID,int loadingGroupId,int emptyGroupId,int errorGroupId,int retryId) {
+        this(layoutID,loadingGroupId,emptyGroupId,errorGroupId,retryId,0);
+    }
+
+    public EmptyLayoutConfig(int layoutID,int loadingGroupId,int emptyGroupId,int errorGroupId,int retryId,long graceMillis) {
         this.layoutID = layoutID;
         this.loadingGroupId = loadingGroupId;
         this.emptyGroupId = emptyGroupId;
         this.errorGroupId = errorGroupId;
         this.retryId = retryId;
+        this.graceMillis = graceMillis;
     }
 }
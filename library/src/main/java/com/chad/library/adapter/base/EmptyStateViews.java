@@ -0,0 +1,65 @@
+package com.chad.library.adapter.base;
+
+import android.view.View;
+import android.view.ViewStub;
+
+/**
+ * The loading, empty and error groups of an empty view inflated from an {@link EmptyLayoutConfig}.
+ * <p>
+ * The groups are looked up once, a group that is a {@link ViewStub} is inflated the first time its
+ * state is shown. The retry view is bound as soon as it exists, it may live in a stub.
+ */
+final class EmptyStateViews {
+
+    private final View mRoot;
+    private final int[] mIds;
+    private final int mRetryId;
+    private final View.OnClickListener mRetryListener;
+    private View[] mViews;
+    private boolean mRetryBound;
+
+    EmptyStateViews(View root,EmptyLayoutConfig config,View.OnClickListener retryListener) {
+        mRoot = root;
+        mIds = new int[] { config.loadingGroupId,config.emptyGroupId,config.errorGroupId };
+        mRetryId = config.retryId;
+        mRetryListener = retryListener;
+        bindRetry();
+    }
+
+    void show(int state) {
+        if (mViews == null) {
+            mViews = new View[mIds.length];
+            for (int i = 0; i < mIds.length; i++) {
+                mViews[i] = mRoot.findViewById(mIds[i]);
+            }
+        }
+        for (int i = 0; i < mViews.length; i++) {
+            View view = mViews[i];
+            if (view == null) {
+                continue;
+            }
+            if (i == state) {
+                if (view instanceof ViewStub) {
+                    view = ((ViewStub)view).inflate();
+                    mViews[i] = view;
+                }
+                view.setVisibility(View.VISIBLE);
+            } else if (!(view instanceof ViewStub)) {
+                // a stub that was never inflated is gone already
+                view.setVisibility(View.GONE);
+            }
+        }
+        bindRetry();
+    }
+
+    private void bindRetry() {
+        if (mRetryBound) {
+            return;
+        }
+        View retry = mRoot.findViewById(mRetryId);
+        if (retry != null) {
+            retry.setOnClickListener(mRetryListener);
+            mRetryBound = true;
+        }
+    }
+}
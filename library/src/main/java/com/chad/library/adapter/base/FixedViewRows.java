@@ -0,0 +1,81 @@
+package com.chad.library.adapter.base;
+
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The header or footer views of a {@link BaseQuickAdapter} when each of them is its own adapter row,
+ * see {@link BaseQuickAdapter#setHeaderFooterAsRows(boolean)}.
+ * <p>
+ * Every view gets a view type of its own, so the RecyclerView never binds one header row with
+ * the view of another. A replaced view gets a new type, the holder of the old one is dropped
+ * by the RecyclerView instead of being reused.
+ */
+final class FixedViewRows {
+
+    private final int mTypeStart;
+    private final int mTypeRange;
+    private int mNextType;
+    private final ArrayList<View> mViews = new ArrayList<>();
+    private int[] mTypes = new int[4];
+
+    FixedViewRows(int typeStart,int typeRange) {
+        mTypeStart = typeStart;
+        mTypeRange = typeRange;
+    }
+
+    int size() {
+        return mViews.size();
+    }
+
+    View getView(int index) {
+        return mViews.get(index);
+    }
+
+    int getType(int index) {
+        return mTypes[index];
+    }
+
+    int indexOf(View view) {
+        return mViews.indexOf(view);
+    }
+
+    int indexOfType(int type) {
+        for (int i = 0, size = mViews.size(); i < size; i++) {
+            if (mTypes[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index the view was added at
+     */
+    int add(int index,View view) {
+        int size = mViews.size();
+        if (index < 0 || index > size) {
+            index = size;
+        }
+        if (size == mTypes.length) {
+            mTypes = Arrays.copyOf(mTypes,size * 2);
+        }
+        System.arraycopy(mTypes,index,mTypes,index + 1,size - index);
+        mTypes[index] = nextType();
+        mViews.add(index,view);
+        return index;
+    }
+
+    View remove(int index) {
+        System.arraycopy(mTypes,index + 1,mTypes,index,mViews.size() - index - 1);
+        return mViews.remove(index);
+    }
+
+    private int nextType() {
+        int type = mTypeStart + mNextType;
+        mNextType = (mNextType + 1) % mTypeRange;
+        return type;
+    }
+}
@@ -0,0 +1,327 @@
+package com.chad.library.adapter.base;
+
+import android.animation.Animator;
+import android.animation.ValueAnimator;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.chad.library.R;
+import com.chad.library.adapter.base.animation.BaseAnimation;
+import com.chad.library.adapter.base.animation.ItemAnimation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Runs the entry animations of a {@link BaseQuickAdapter}.
+ * <p>
+ * An {@link ItemAnimation} is applied through {@link ItemAnimation#apply(View,float)} by a
+ * {@link ValueAnimator} kept per item view. It is not run on the ViewPropertyAnimator of the view,
+ * the item animator of the RecyclerView cancels that one when it animates an added row. The animators
+ * of any other {@link BaseAnimation} are created once per item view and started again on the next
+ * attach. While the list scrolls faster than the skip velocity the animations are skipped, while
+ * the scroll frames take longer than the frame budget they run at half the duration.
+ * <p>
+ * With a stagger delay the rows are animated by one {@link ValueAnimator}. The rows attached in the
+ * same layout pass form a group, each row starts the stagger delay times its distance to the first
+ * row of the group later.
+ */
+final class ItemAnimationController {
+
+    static final long DEFAULT_FRAME_BUDGET_MILLIS = 24;
+
+    /**
+     * px per second, -1 for a quarter of the maximum fling velocity
+     */
+    private int mSkipVelocity = -1;
+    private int mDefaultSkipVelocity;
+    private long mFrameBudgetMillis = DEFAULT_FRAME_BUDGET_MILLIS;
+    private long mLastScrollTime;
+    private int mVelocity;
+    private long mFrameMillis;
+
+    private long mStaggerDelay;
+    private final ArrayList<View> mBatchViews = new ArrayList<>();
+    private long[] mBatchStarts = new long[16];
+    private long[] mBatchDurations = new long[16];
+    private ItemAnimation mBatchAnimation;
+    private Interpolator mBatchInterpolator;
+    private ValueAnimator mBatchAnimator;
+    private int mGroupFirstPosition = RecyclerView.NO_POSITION;
+    private long mGroupTime;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    /**
+     * Posted when a group starts, it runs after the layout pass that attached the rows. The frame
+     * time of {@link AnimationUtils} can not tell the passes apart, it is only frame locked from API 24.
+     */
+    private final Runnable mEndGroup = new Runnable() {
+        @Override
+        public void run() {
+            mGroupFirstPosition = RecyclerView.NO_POSITION;
+        }
+    };
+
+    private final ValueAnimator.AnimatorUpdateListener mBatchUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            long now = AnimationUtils.currentAnimationTimeMillis();
+            int size = mBatchViews.size();
+            int write = 0;
+            for (int i = 0; i < size; i++) {
+                View view = mBatchViews.get(i);
+                long elapsed = now - mBatchStarts[i];
+                float fraction = 0f;
+                if (elapsed >= 0) {
+                    fraction = mBatchDurations[i] <= 0 ? 1f : Math.min(1f,elapsed / (float)mBatchDurations[i]);
+                    mBatchAnimation.apply(view,mBatchInterpolator.getInterpolation(fraction));
+                }
+                if (fraction < 1f) {
+                    mBatchViews.set(write,view);
+                    mBatchStarts[write] = mBatchStarts[i];
+                    mBatchDurations[write] = mBatchDurations[i];
+                    write++;
+                }
+            }
+            truncateBatch(write);
+            if (write == 0) {
+                animation.cancel();
+            }
+        }
+    };
+
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView,int newState) {
+            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                resetScrollState();
+            }
+        }
+
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView,int dx,int dy) {
+            long now = SystemClock.uptimeMillis();
+            long elapsed = now - mLastScrollTime;
+            if (mLastScrollTime != 0 && elapsed > 0) {
+                mVelocity = (int)((Math.abs(dx) + Math.abs(dy)) * 1000L / elapsed);
+                mFrameMillis = elapsed;
+            }
+            mLastScrollTime = now;
+        }
+    };
+
+    private static final class PooledAnimators {
+        final BaseAnimation owner;
+        final Animator[] animators;
+
+        PooledAnimators(BaseAnimation owner,Animator[] animators) {
+            this.owner = owner;
+            this.animators = animators;
+        }
+    }
+
+    /**
+     * The entry animation state of an item view for an {@link ItemAnimation}, reused on the next attach.
+     */
+    private static final class EntryAnimator implements ValueAnimator.AnimatorUpdateListener {
+        final View view;
+        final ValueAnimator animator = ValueAnimator.ofFloat(0f,1f);
+        ItemAnimation animation;
+
+        EntryAnimator(View view) {
+            this.view = view;
+            animator.addUpdateListener(this);
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator valueAnimator) {
+            animation.apply(view,valueAnimator.getAnimatedFraction());
+        }
+    }
+
+    void attach(RecyclerView recyclerView) {
+        mDefaultSkipVelocity = ViewConfiguration.get(recyclerView.getContext()).getScaledMaximumFlingVelocity() / 4;
+        recyclerView.addOnScrollListener(mScrollListener);
+    }
+
+    void detach(RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(mScrollListener);
+        resetScrollState();
+        endBatch();
+    }
+
+    /**
+     * @param staggerDelay delay between two rows attached in the same frame, 0 animates every row on its own
+     */
+    void setStaggerDelay(long staggerDelay) {
+        if (staggerDelay <= 0) {
+            endBatch();
+        }
+        mStaggerDelay = Math.max(staggerDelay,0);
+    }
+
+    boolean isStaggered() {
+        return mStaggerDelay > 0;
+    }
+
+    /**
+     * @param skipVelocity px per second, 0 never skips, -1 for the default
+     * @param frameBudgetMillis 0 never shortens the animations
+     */
+    void setBudget(int skipVelocity,long frameBudgetMillis) {
+        mSkipVelocity = skipVelocity;
+        mFrameBudgetMillis = frameBudgetMillis;
+    }
+
+    /**
+     * @return the duration for an animation starting now, 0 if it should be skipped
+     */
+    long getDuration(long duration) {
+        int skipVelocity = mSkipVelocity < 0 ? mDefaultSkipVelocity : mSkipVelocity;
+        if (skipVelocity > 0 && mVelocity > skipVelocity) {
+            return 0;
+        }
+        if (mFrameBudgetMillis > 0 && mFrameMillis > mFrameBudgetMillis) {
+            return duration / 2;
+        }
+        return duration;
+    }
+
+    void start(View view,ItemAnimation animation,long duration,Interpolator interpolator) {
+        EntryAnimator entry = obtainEntryAnimator(view);
+        entry.animation = animation;
+        if (duration <= 0) {
+            animation.reset(view);
+            return;
+        }
+        animation.prepare(view);
+        entry.animator.setDuration(duration);
+        entry.animator.setInterpolator(interpolator);
+        entry.animator.start();
+    }
+
+    /**
+     * Add the view to the rows driven by the batch animator, see {@link #setStaggerDelay(long)}.
+     */
+    void queue(View view,int layoutPosition,ItemAnimation animation,long duration,Interpolator interpolator) {
+        if (duration <= 0) {
+            start(view,animation,duration,interpolator);
+            return;
+        }
+        if (mBatchAnimation != animation || mBatchInterpolator != interpolator) {
+            endBatch();
+            mBatchAnimation = animation;
+            mBatchInterpolator = interpolator;
+        }
+        // takes the view out of the batch if it is still in it
+        obtainEntryAnimator(view).animation = animation;
+        if (mGroupFirstPosition == RecyclerView.NO_POSITION) {
+            mGroupFirstPosition = layoutPosition;
+            mGroupTime = AnimationUtils.currentAnimationTimeMillis();
+            mHandler.post(mEndGroup);
+        }
+        int index = mBatchViews.size();
+        mBatchViews.add(view);
+        if (index == mBatchStarts.length) {
+            mBatchStarts = Arrays.copyOf(mBatchStarts,index * 2);
+            mBatchDurations = Arrays.copyOf(mBatchDurations,index * 2);
+        }
+        mBatchStarts[index] = mGroupTime + Math.abs(layoutPosition - mGroupFirstPosition) * mStaggerDelay;
+        mBatchDurations[index] = duration;
+        animation.prepare(view);
+        if (mBatchAnimator == null) {
+            mBatchAnimator = ValueAnimator.ofFloat(0f,1f);
+            mBatchAnimator.setRepeatCount(ValueAnimator.INFINITE);
+            mBatchAnimator.addUpdateListener(mBatchUpdateListener);
+        }
+        if (!mBatchAnimator.isStarted()) {
+            mBatchAnimator.start();
+        }
+    }
+
+    /**
+     * @return the animators of the view, only created if the view has none of this animation yet
+     */
+    Animator[] getAnimators(View view,BaseAnimation animation) {
+        Object tag = view.getTag(R.id.BaseQuickAdapter_animation_support);
+        if (tag instanceof PooledAnimators && ((PooledAnimators)tag).owner == animation) {
+            return ((PooledAnimators)tag).animators;
+        }
+        finish(view);
+        PooledAnimators pooled = new PooledAnimators(animation,animation.getAnimators(view));
+        view.setTag(R.id.BaseQuickAdapter_animation_support,pooled);
+        return pooled.animators;
+    }
+
+    /**
+     * Bring a view that may still run an entry animation to the end state.
+     */
+    void finish(View view) {
+        Object tag = view.getTag(R.id.BaseQuickAdapter_animation_support);
+        if (tag instanceof PooledAnimators) {
+            for (Animator animator : ((PooledAnimators)tag).animators) {
+                animator.end();
+            }
+        } else if (tag instanceof EntryAnimator) {
+            EntryAnimator entry = (EntryAnimator)tag;
+            entry.animator.cancel();
+            int index = mBatchViews.indexOf(view);
+            if (index >= 0) {
+                mBatchViews.remove(index);
+                System.arraycopy(mBatchStarts,index + 1,mBatchStarts,index,mBatchViews.size() - index);
+                System.arraycopy(mBatchDurations,index + 1,mBatchDurations,index,mBatchViews.size() - index);
+            }
+            if (entry.animation != null) {
+                entry.animation.reset(view);
+            }
+        }
+    }
+
+    /**
+     * @return the entry animator of the view, a running entry animation of the view is finished first
+     */
+    private EntryAnimator obtainEntryAnimator(View view) {
+        finish(view);
+        Object tag = view.getTag(R.id.BaseQuickAdapter_animation_support);
+        if (tag instanceof EntryAnimator) {
+            return (EntryAnimator)tag;
+        }
+        EntryAnimator entry = new EntryAnimator(view);
+        view.setTag(R.id.BaseQuickAdapter_animation_support,entry);
+        return entry;
+    }
+
+    /**
+     * Bring all rows of the batch to the end state.
+     */
+    private void endBatch() {
+        if (mBatchAnimator != null) {
+            mBatchAnimator.cancel();
+        }
+        for (int i = 0; i < mBatchViews.size(); i++) {
+            mBatchAnimation.reset(mBatchViews.get(i));
+        }
+        mBatchViews.clear();
+        mHandler.removeCallbacks(mEndGroup);
+        mGroupFirstPosition = RecyclerView.NO_POSITION;
+    }
+
+    private void truncateBatch(int size) {
+        for (int i = mBatchViews.size() - 1; i >= size; i--) {
+            mBatchViews.remove(i);
+        }
+    }
+
+    private void resetScrollState() {
+        mLastScrollTime = 0;
+        mVelocity = 0;
+        mFrameMillis = 0;
+    }
+}
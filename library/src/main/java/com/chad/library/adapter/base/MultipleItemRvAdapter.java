@@ -2,8 +2,12 @@ package com.chad.library.adapter.base;
 
 import android.util.SparseArray;
 import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
 import com.chad.library.adapter.base.provider.BaseItemProvider;
+import com.chad.library.adapter.base.util.AdapterTrace;
 import com.chad.library.adapter.base.util.MultiTypeDelegate;
 import com.chad.library.adapter.base.util.ProviderDelegate;
 import java.util.List;
@@ -21,6 +25,8 @@ public abstract class MultipleItemRvAdapter<T,V extends BaseViewHolder> extends
 
     private SparseArray<BaseItemProvider> mItemProviders;
     protected ProviderDelegate mProviderDelegate;
+    @Nullable
+    protected ProviderDelegate.KeyExtractor<T> mProviderKeyExtractor;
 
     public MultipleItemRvAdapter(@Nullable List<T> data) {
         super(data);
@@ -53,55 +59,116 @@ public abstract class MultipleItemRvAdapter<T,V extends BaseViewHolder> extends
         }
     }
 
-    protected abstract int getViewType(T t);
+    /**
+     * The view type of the item. By default the provider is looked up by the key of
+     * {@link #setProviderKeyExtractor(ProviderDelegate.KeyExtractor)}, or by the class of the item
+     * if there is no key extractor, see {@link ProviderDelegate#registerProvider(Class, BaseItemProvider)}.
+     * Override it for providers registered by their {@link BaseItemProvider#viewType()}.
+     */
+    protected int getViewType(T t) {
+        if (mProviderKeyExtractor != null) {
+            return mProviderDelegate.getViewTypeForKey(mProviderKeyExtractor.getKey(t));
+        }
+        return mProviderDelegate.getViewType(t);
+    }
+
+    /**
+     * Look the provider of an item up by its key instead of its class.
+     * <p>
+     * 通过 key 而不是 class 查找 item 对应的 provider
+     */
+    public void setProviderKeyExtractor(@Nullable ProviderDelegate.KeyExtractor<T> keyExtractor) {
+        mProviderKeyExtractor = keyExtractor;
+    }
 
     public abstract void registerItemProvider();
 
+    @Override
+    protected V onCreateDefViewHolder(ViewGroup parent, int viewType) {
+        V helper = super.onCreateDefViewHolder(parent, viewType);
+        BaseItemProvider provider = mItemProviders.get(viewType);
+        if (provider != null) {
+            provider.mContext = parent.getContext();
+            provider.onCreateViewHolder(helper);
+            bindClick(helper, provider);
+        }
+        return helper;
+    }
+
     @Override
     protected void convert(V helper, T item) {
         int itemViewType = helper.getItemViewType();
         BaseItemProvider provider = mItemProviders.get(itemViewType);
 
-        provider.mContext = helper.itemView.getContext();
-
-        int position = helper.getLayoutPosition() - getHeaderLayoutCount();
-        provider.convert(helper, item, position);
-
-        bindClick(helper, item, position, provider);
+        int position = helper.getLayoutPosition() - getDataOffset();
+        boolean traced = AdapterTrace.isEnabled();
+        if (traced) {
+            AdapterTrace.beginSection("BRVAH bind type=" + itemViewType + " provider=" + provider.getClass().getSimpleName());
+        }
+        try {
+            provider.convert(helper, item, getPreparedModel(item), position);
+        } finally {
+            if (traced) {
+                AdapterTrace.endSection();
+            }
+        }
     }
 
-    private void bindClick(final V helper, final T item, final int position, final BaseItemProvider provider) {
-        OnItemClickListener clickListener = getOnItemClickListener();
-        OnItemLongClickListener longClickListener = getOnItemLongClickListener();
-
-        if (clickListener != null && longClickListener != null){
-            //如果已经设置了子条目点击监听和子条目长按监听
-            // If you have set up a sub-entry click monitor and sub-entries long press listen
-            return;
-        }
+    /**
+     * Prepare the models of {@link BaseItemProvider#prepare(Object)} off the main thread, the providers
+     * get them in {@link BaseItemProvider#convert(BaseViewHolder, Object, Object, int)}.
+     * {@link #getViewType(Object)} is then also called on the executor, an override has to be thread safe.
+     * Call it after {@link #finishInitialize()}.
+     * <p>
+     * 在后台线程执行 provider 的 prepare，convert 时直接使用结果
+     */
+    public void enableProviderPrepare() {
+        setItemPreparer(new ItemPreparer<T>() {
+            @Override
+            public Object prepare(@NonNull T item) {
+                BaseItemProvider provider = mItemProviders.get(getViewType(item));
+                return provider == null ? null : provider.prepare(item);
+            }
+        });
+    }
 
+    /**
+     * Bound once per holder, the item and its position are looked up when the event happens.
+     * An item (long) click listener of the adapter replaces these, see bindViewClickListener.
+     */
+    private void bindClick(final V helper, final BaseItemProvider provider) {
         View itemView = helper.itemView;
 
-        if (clickListener == null){
-            //如果没有设置点击监听，则回调给itemProvider
-            //Callback to itemProvider if no click listener is set
-            itemView.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View v) {
+        //没有设置点击监听时回调给itemProvider，设置了的话会被 adapter 的监听覆盖
+        //Callback to itemProvider, a click listener set on the adapter replaces this one
+        itemView.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                int position = helper.getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) {
+                    return;
+                }
+                position -= getDataOffset();
+                T item = getItem(position);
+                if (item != null) {
                     provider.onClick(helper, item, position);
                 }
-            });
-        }
+            }
+        });
 
-        if (longClickListener == null){
-            //如果没有设置长按监听，则回调给itemProvider
-            // If you do not set a long press listener, callback to the itemProvider
-            itemView.setOnLongClickListener(new View.OnLongClickListener() {
-                @Override
-                public boolean onLongClick(View v) {
-                    return provider.onLongClick(helper, item, position);
+        //没有设置长按监听时回调给itemProvider
+        //If you do not set a long press listener, callback to the itemProvider
+        itemView.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                int position = helper.getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) {
+                    return false;
                 }
-            });
-        }
+                position -= getDataOffset();
+                T item = getItem(position);
+                return item != null && provider.onLongClick(helper, item, position);
+            }
+        });
     }
 }
@@ -0,0 +1,115 @@
+package com.chad.library.adapter.base;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * The render models of {@link BaseQuickAdapter.ItemPreparer}, prepared on an executor and kept
+ * per item in an LRU cache. The cache is only touched on the main thread, a model that is asked
+ * for before it is ready is prepared right there.
+ */
+final class PrepareStage<T> {
+
+    /**
+     * cached for items whose model is null, LruCache does not take null
+     */
+    private static final Object NO_MODEL = new Object();
+
+    private final BaseQuickAdapter.ItemPreparer<T> mPreparer;
+    private final Executor mExecutor;
+    private final LruCache<T,Object> mModels;
+    /**
+     * the running task of every item, a result is only kept if its task is still the one of the item
+     */
+    private final HashMap<T,PrepareTask> mPending = new HashMap<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    PrepareStage(BaseQuickAdapter.ItemPreparer<T> preparer,Executor executor,int cacheSize) {
+        mPreparer = preparer;
+        mExecutor = executor;
+        mModels = new LruCache<>(cacheSize);
+    }
+
+    int getCacheSize() {
+        return mModels.maxSize();
+    }
+
+    Object get(T item) {
+        Object model = mModels.get(item);
+        if (model == null) {
+            model = wrap(mPreparer.prepare(item));
+            mModels.put(item,model);
+            // a task that is still running would only bring the same model
+            mPending.remove(item);
+        }
+        return model == NO_MODEL ? null : model;
+    }
+
+    void schedule(T item) {
+        if (item == null || mModels.get(item) != null || mPending.containsKey(item)) {
+            return;
+        }
+        PrepareTask task = new PrepareTask(item);
+        mPending.put(item,task);
+        mExecutor.execute(task);
+    }
+
+    /**
+     * Drop the model of the item, the result of a task started before is dropped as well.
+     */
+    void invalidate(T item) {
+        if (item != null) {
+            mModels.remove(item);
+            mPending.remove(item);
+        }
+    }
+
+    void clear() {
+        mModels.evictAll();
+        mPending.clear();
+    }
+
+    private static Object wrap(Object model) {
+        return model == null ? NO_MODEL : model;
+    }
+
+    private final class PrepareTask implements Runnable {
+        private final T mItem;
+
+        PrepareTask(T item) {
+            mItem = item;
+        }
+
+        @Override
+        public void run() {
+            Object prepared = null;
+            boolean done;
+            try {
+                prepared = mPreparer.prepare(mItem);
+                done = true;
+            } catch (RuntimeException e) {
+                // prepared again on the main thread when the model is needed, the error shows up there
+                done = false;
+            }
+            final Object model = prepared;
+            final boolean success = done;
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mPending.get(mItem) != PrepareTask.this) {
+                        // invalidated or cleared while it was running
+                        return;
+                    }
+                    mPending.remove(mItem);
+                    if (success) {
+                        mModels.put(mItem,wrap(model));
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.chad.library.adapter.base;
+
+import com.chad.library.adapter.base.entity.SectionEntity;
+import com.chad.library.adapter.base.entity.SectionMultiEntity;
+import com.chad.library.adapter.base.util.SectionAdapter;
+import com.chad.library.adapter.base.util.SectionIndex;
+
+/**
+ * The section index of {@link BaseSectionQuickAdapter} and {@link BaseSectionMultiItemQuickAdapter}.
+ * The adapters forward their data notifications and their {@link SectionAdapter} calls to it.
+ */
+final class SectionIndexDelegate implements SectionAdapter {
+
+    private final BaseQuickAdapter<?, ?> mAdapter;
+    private final SectionIndex mIndex;
+
+    SectionIndexDelegate(final BaseQuickAdapter<?, ?> adapter) {
+        mAdapter = adapter;
+        mIndex = new SectionIndex(new SectionIndex.HeaderLookup() {
+            @Override
+            public boolean isSectionHeader(int position) {
+                Object item = adapter.getItem(position);
+                if (item instanceof SectionEntity) {
+                    return ((SectionEntity) item).isHeader;
+                }
+                return item instanceof SectionMultiEntity && ((SectionMultiEntity) item).isHeader;
+            }
+        });
+    }
+
+    void onDataSetReset() {
+        mIndex.invalidate();
+    }
+
+    void onDataRangeChanged(int positionStart, int itemCount) {
+        mIndex.onChanged(positionStart, itemCount);
+    }
+
+    void onDataRangeInserted(int positionStart, int itemCount) {
+        mIndex.onInserted(positionStart, itemCount);
+    }
+
+    void onDataRangeRemoved(int positionStart, int itemCount) {
+        mIndex.onRemoved(positionStart, itemCount);
+    }
+
+    void onDataMoved(int fromPosition, int toPosition) {
+        mIndex.onMoved(fromPosition, toPosition);
+    }
+
+    /**
+     * @return the index, synced with the data of the adapter
+     */
+    SectionIndex getSectionIndex() {
+        mIndex.sync(mAdapter.getAdapterCount());
+        return mIndex;
+    }
+
+    @Override
+    public int getSectionCount() {
+        return getSectionIndex().getSectionCount();
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        return getSectionIndex().getSectionForPosition(position);
+    }
+
+    @Override
+    public int getSectionHeaderPosition(int section) {
+        return getSectionIndex().getHeaderPosition(section);
+    }
+}
@@ -0,0 +1,201 @@
+package com.chad.library.adapter.base;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Swiped items that are hidden but not removed yet.
+ * <p>
+ * A swiped item stays in the data as a tombstone, its row turns into an empty
+ * {@link BaseQuickAdapter#DISMISSED_VIEW} with a change notify. When no item was swiped for the
+ * quiet period all tombstones are removed from the data at once, adjacent ones with one notify.
+ * An undo before that only changes the row back, nothing moves.
+ * Enable it with {@link BaseItemDraggableAdapter#enableSwipeDismissBuffer(long)} or
+ * {@link DraggableController#enableSwipeDismissBuffer(long)}. The quiet period only runs while the
+ * adapter is attached to a RecyclerView. Not for adapters that use a PagedList, their data can not
+ * be removed from.
+ * <p>
+ * 滑动删除的缓冲区，静默期结束后批量删除，期间可以撤销
+ */
+public class SwipeDismissBuffer {
+
+    public static final long DEFAULT_QUIET_PERIOD_MILLIS = 3000;
+
+    public interface OnDismissCommitListener {
+        /**
+         * @param items the removed items, in the order they were swiped. Tombstones that were no
+         *              longer in the data, e.g. removed by other code, are not in it
+         */
+        void onDismissCommitted(List<Object> items);
+    }
+
+    private final BaseQuickAdapter mAdapter;
+    private final Set<Object> mDismissed = Collections.newSetFromMap(new IdentityHashMap<Object,Boolean>());
+    /**
+     * the tombstones in the order they were swiped
+     */
+    private final ArrayList<Object> mOrder = new ArrayList<>();
+    private long mQuietPeriod;
+    @Nullable
+    private OnDismissCommitListener mOnDismissCommitListener;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mCommitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            commit();
+        }
+    };
+
+    SwipeDismissBuffer(BaseQuickAdapter adapter,long quietPeriod) {
+        if (adapter.isUsePaged()) {
+            throw new IllegalStateException("the swipe dismiss buffer can not remove items from a PagedList");
+        }
+        mAdapter = adapter;
+        mQuietPeriod = quietPeriod;
+    }
+
+    public void setQuietPeriod(long quietPeriod) {
+        mQuietPeriod = quietPeriod;
+    }
+
+    public void setOnDismissCommitListener(@Nullable OnDismissCommitListener listener) {
+        mOnDismissCommitListener = listener;
+    }
+
+    /**
+     * Turn the item at the data position into a tombstone.
+     */
+    void dismiss(int position) {
+        Object item = mAdapter.peekItem(position);
+        if (item == null) {
+            return;
+        }
+        if (mDismissed.add(item)) {
+            mOrder.add(item);
+        }
+        mAdapter.notifyItemChanged(position);
+        mHandler.removeCallbacks(mCommitRunnable);
+        mHandler.postDelayed(mCommitRunnable,mQuietPeriod);
+    }
+
+    /**
+     * The adapter left its RecyclerView. The pending commit waits for the next attach, the handler
+     * would keep a dropped adapter alive and change the data of a detached one.
+     */
+    void pause() {
+        mHandler.removeCallbacks(mCommitRunnable);
+    }
+
+    void resume() {
+        if (!mOrder.isEmpty()) {
+            mHandler.removeCallbacks(mCommitRunnable);
+            mHandler.postDelayed(mCommitRunnable,mQuietPeriod);
+        }
+    }
+
+    /**
+     * @param position data position
+     */
+    public boolean isDismissed(int position) {
+        // called for every getItemViewType, so no lookup with side effects
+        return !mDismissed.isEmpty() && mDismissed.contains(mAdapter.peekItem(position));
+    }
+
+    public int getDismissedCount() {
+        return mOrder.size();
+    }
+
+    /**
+     * Show the item again.
+     *
+     * @return false if the item is no tombstone (any more)
+     */
+    public boolean undo(Object item) {
+        if (!mDismissed.remove(item)) {
+            return false;
+        }
+        for (int i = mOrder.size() - 1; i >= 0; i--) {
+            if (mOrder.get(i) == item) {
+                mOrder.remove(i);
+                break;
+            }
+        }
+        List data = mAdapter.getData();
+        for (int i = 0; i < data.size(); i++) {
+            if (data.get(i) == item) {
+                mAdapter.notifyItemChanged(i);
+                break;
+            }
+        }
+        if (mOrder.isEmpty()) {
+            mHandler.removeCallbacks(mCommitRunnable);
+        }
+        return true;
+    }
+
+    /**
+     * Show the item that was swiped last again.
+     *
+     * @return false if there is no tombstone
+     */
+    public boolean undoLast() {
+        return !mOrder.isEmpty() && undo(mOrder.get(mOrder.size() - 1));
+    }
+
+    public void undoAll() {
+        while (undoLast()) {
+            // every undo shows one item
+        }
+    }
+
+    /**
+     * Remove all tombstones from the data now.
+     */
+    public void commit() {
+        mHandler.removeCallbacks(mCommitRunnable);
+        if (mDismissed.isEmpty()) {
+            return;
+        }
+        List data = mAdapter.getData();
+        Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<Object,Boolean>());
+        mAdapter.beginBatchedUpdates();
+        try {
+            // from the end, the positions of the runs in front stay valid
+            int i = data.size() - 1;
+            while (i >= 0) {
+                if (!mDismissed.contains(data.get(i))) {
+                    i--;
+                    continue;
+                }
+                int end = i + 1;
+                while (i >= 0 && mDismissed.contains(data.get(i))) {
+                    removed.add(data.get(i));
+                    i--;
+                }
+                data.subList(i + 1,end).clear();
+                mAdapter.notifyItemRangeRemoved(i + 1,end - i - 1);
+            }
+        } finally {
+            mAdapter.endBatchedUpdates();
+        }
+        List<Object> committed = new ArrayList<>(removed.size());
+        for (Object item : mOrder) {
+            if (removed.contains(item)) {
+                committed.add(item);
+            }
+        }
+        mDismissed.clear();
+        mOrder.clear();
+        if (mOnDismissCommitListener != null) {
+            mOnDismissCommitListener.onDismissCommitted(committed);
+        }
+    }
+}
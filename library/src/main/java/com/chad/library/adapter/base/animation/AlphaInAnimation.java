@@ -8,7 +8,7 @@ import android.view.View;
 /**
  * https://github.com/CymChad/BaseRecyclerViewAdapterHelper
  */
-public class AlphaInAnimation implements BaseAnimation {
+public class AlphaInAnimation implements ItemAnimation {
     private static final float DEFAULT_ALPHA_FROM = 0f;
     private final float mFrom;
 
@@ -24,4 +24,19 @@ public class AlphaInAnimation implements BaseAnimation {
     public Animator[] getAnimators(View view) {
         return new Animator[]{ObjectAnimator.ofFloat(view, "alpha", mFrom, 1f)};
     }
+
+    @Override
+    public void prepare(View view) {
+        view.setAlpha(mFrom);
+    }
+
+    @Override
+    public void apply(View view, float fraction) {
+        view.setAlpha(mFrom + (1f - mFrom) * fraction);
+    }
+
+    @Override
+    public void reset(View view) {
+        view.setAlpha(1f);
+    }
 }
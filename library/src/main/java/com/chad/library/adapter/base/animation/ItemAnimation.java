@@ -0,0 +1,31 @@
+package com.chad.library.adapter.base.animation;
+
+import android.view.View;
+
+/**
+ * A {@link BaseAnimation} whose state at any fraction can be set directly.
+ * <p>
+ * The adapter uses this path instead of {@link #getAnimators(View)}, one animator per item view
+ * is reused for every entry animation of the view and a staggered batch shares a single one.
+ * <p>
+ * 由 adapter 逐帧驱动的入场动画，不会为每次入场创建 Animator
+ */
+public interface ItemAnimation extends BaseAnimation {
+
+    /**
+     * Set the start values of the animated properties.
+     */
+    void prepare(View view);
+
+    /**
+     * Set the animated properties to the state at {@code fraction}, called by the adapter on every frame.
+     *
+     * @param fraction interpolated fraction, 0 is the start and 1 the end state
+     */
+    void apply(View view, float fraction);
+
+    /**
+     * Set the end values of the animated properties, when the animation is skipped or cancelled.
+     */
+    void reset(View view);
+}
@@ -8,7 +8,7 @@ import android.view.View;
 /**
  * https://github.com/CymChad/BaseRecyclerViewAdapterHelper
  */
-public class ScaleInAnimation implements BaseAnimation {
+public class ScaleInAnimation implements ItemAnimation {
     private static final float DEFAULT_SCALE_FROM = .5f;
     private final float mFrom;
 
@@ -26,4 +26,23 @@ public class ScaleInAnimation implements BaseAnimation {
         ObjectAnimator scaleY = ObjectAnimator.ofFloat(view, "scaleY", mFrom, 1f);
         return new ObjectAnimator[]{scaleX, scaleY};
     }
+
+    @Override
+    public void prepare(View view) {
+        view.setScaleX(mFrom);
+        view.setScaleY(mFrom);
+    }
+
+    @Override
+    public void apply(View view, float fraction) {
+        float scale = mFrom + (1f - mFrom) * fraction;
+        view.setScaleX(scale);
+        view.setScaleY(scale);
+    }
+
+    @Override
+    public void reset(View view) {
+        view.setScaleX(1f);
+        view.setScaleY(1f);
+    }
 }
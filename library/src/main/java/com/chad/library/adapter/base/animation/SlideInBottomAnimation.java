@@ -8,11 +8,26 @@ import android.view.View;
 /**
  * https://github.com/CymChad/BaseRecyclerViewAdapterHelper
  */
-public class SlideInBottomAnimation implements BaseAnimation {
+public class SlideInBottomAnimation implements ItemAnimation {
     @Override
     public Animator[] getAnimators(View view) {
         return new Animator[]{
                 ObjectAnimator.ofFloat(view, "translationY", view.getMeasuredHeight(), 0)
         };
     }
+
+    @Override
+    public void prepare(View view) {
+        view.setTranslationY(view.getMeasuredHeight());
+    }
+
+    @Override
+    public void apply(View view, float fraction) {
+        view.setTranslationY(view.getMeasuredHeight() * (1f - fraction));
+    }
+
+    @Override
+    public void reset(View view) {
+        view.setTranslationY(0);
+    }
 }
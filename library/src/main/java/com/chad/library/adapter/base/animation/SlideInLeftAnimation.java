@@ -8,11 +8,26 @@ import android.view.View;
 /**
  * https://github.com/CymChad/BaseRecyclerViewAdapterHelper
  */
-public class SlideInLeftAnimation implements BaseAnimation {
+public class SlideInLeftAnimation implements ItemAnimation {
     @Override
     public Animator[] getAnimators(View view) {
         return new Animator[]{
                 ObjectAnimator.ofFloat(view, "translationX", -view.getRootView().getWidth(), 0)
         };
     }
+
+    @Override
+    public void prepare(View view) {
+        view.setTranslationX(-view.getRootView().getWidth());
+    }
+
+    @Override
+    public void apply(View view, float fraction) {
+        view.setTranslationX(-view.getRootView().getWidth() * (1f - fraction));
+    }
+
+    @Override
+    public void reset(View view) {
+        view.setTranslationX(0);
+    }
 }
@@ -233,8 +233,9 @@ public class ItemDragAndSwipeCallback extends ItemTouchHelper.Callback {
 
     private boolean isViewCreateByAdapter(@NonNull RecyclerView.ViewHolder viewHolder) {
         int type = viewHolder.getItemViewType();
-        return type == BaseQuickAdapter.HEADER_VIEW || type == BaseQuickAdapter.LOADING_VIEW
-            || type == BaseQuickAdapter.FOOTER_VIEW || type == BaseQuickAdapter.EMPTY_VIEW;
+        return BaseQuickAdapter.isHeaderViewType(type) || type == BaseQuickAdapter.LOADING_VIEW
+            || BaseQuickAdapter.isFooterViewType(type) || type == BaseQuickAdapter.EMPTY_VIEW
+            || type == BaseQuickAdapter.DISMISSED_VIEW;
     }
 
      static final String TAG = "SwipeCallback";
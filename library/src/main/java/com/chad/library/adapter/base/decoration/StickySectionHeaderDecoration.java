@@ -0,0 +1,265 @@
+package com.chad.library.adapter.base.decoration;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.chad.library.adapter.base.BaseQuickAdapter;
+import com.chad.library.adapter.base.BaseViewHolder;
+import com.chad.library.adapter.base.util.SectionAdapter;
+
+/**
+ * Pins the header of the section at the top of the list over the rows of a vertical list,
+ * the header of the next section pushes it out.
+ * <p>
+ * The adapter has to be a {@link BaseQuickAdapter} implementing {@link SectionAdapter}, e.g.
+ * {@link com.chad.library.adapter.base.BaseSectionQuickAdapter}. One holder is kept per header view
+ * type, it is only bound again when the pinned section or the data changes, and drawn into a bitmap
+ * then. Every other frame only draws the bitmap. The pinned header does not take touches, call
+ * {@link #invalidateHeaders()} if the header content changes without a notify (e.g. a loaded image).
+ * Remove it with {@link #attachToRecyclerView(RecyclerView) attachToRecyclerView(null)}, which also
+ * unregisters it from the adapter.
+ * <p>
+ * 悬停的分组头，分组不变时只绘制缓存的位图
+ */
+public class StickySectionHeaderDecoration extends RecyclerView.ItemDecoration {
+
+    private final SparseArray<HeaderCache> mHeaders = new SparseArray<>();
+    @Nullable
+    private RecyclerView mRecyclerView;
+    @Nullable
+    private RecyclerView.Adapter mAdapter;
+    private final View.OnAttachStateChangeListener mAttachListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            // the adapter is registered again by the next draw
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            attachAdapter(null);
+        }
+    };
+    private final RecyclerView.AdapterDataObserver mDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidateHeaders();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            // a change keeps the positions, only the bound headers inside the range are stale
+            for (int i = 0; i < mHeaders.size(); i++) {
+                HeaderCache header = mHeaders.valueAt(i);
+                if (header.boundPosition >= positionStart && header.boundPosition < positionStart + itemCount) {
+                    header.boundPosition = RecyclerView.NO_POSITION;
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            invalidateHeaders();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            invalidateHeaders();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            invalidateHeaders();
+        }
+    };
+
+    /**
+     * Add the decoration to the RecyclerView, or remove it from the current one if null.
+     */
+    public void attachToRecyclerView(@Nullable RecyclerView recyclerView) {
+        if (recyclerView == mRecyclerView) {
+            return;
+        }
+        if (mRecyclerView != null) {
+            mRecyclerView.removeItemDecoration(this);
+        }
+        trackRecyclerView(recyclerView);
+        if (recyclerView != null) {
+            recyclerView.addItemDecoration(this);
+        }
+    }
+
+    /**
+     * Bind and draw the pinned header again on the next frame.
+     */
+    public void invalidateHeaders() {
+        for (int i = 0; i < mHeaders.size(); i++) {
+            mHeaders.valueAt(i).boundPosition = RecyclerView.NO_POSITION;
+        }
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        // added with addItemDecoration as well, the adapter observer is dropped when the RecyclerView is detached
+        trackRecyclerView(parent);
+        RecyclerView.Adapter adapter = parent.getAdapter();
+        attachAdapter(adapter);
+        if (!(adapter instanceof BaseQuickAdapter) || !(adapter instanceof SectionAdapter) || parent.getChildCount() == 0) {
+            return;
+        }
+        BaseQuickAdapter quickAdapter = (BaseQuickAdapter) adapter;
+        SectionAdapter sections = (SectionAdapter) adapter;
+        int top = parent.getPaddingTop();
+        int firstPosition = findFirstVisiblePosition(parent, top);
+        int offset = quickAdapter.getDataOffset();
+        int dataPosition = firstPosition - offset;
+        if (firstPosition == RecyclerView.NO_POSITION || dataPosition < 0 || dataPosition >= quickAdapter.getAdapterCount()) {
+            return;
+        }
+        int section = sections.getSectionForPosition(dataPosition);
+        if (section < 0) {
+            return;
+        }
+        HeaderCache header = getHeader(parent, quickAdapter, sections.getSectionHeaderPosition(section));
+        if (header.bitmap == null) {
+            return;
+        }
+        int translation = 0;
+        if (section + 1 < sections.getSectionCount()) {
+            View next = findChild(parent, sections.getSectionHeaderPosition(section + 1) + offset);
+            if (next != null && next.getTop() < top + header.bitmap.getHeight()) {
+                translation = next.getTop() - top - header.bitmap.getHeight();
+            }
+        }
+        c.drawBitmap(header.bitmap, parent.getPaddingLeft(), top + translation, null);
+    }
+
+    /**
+     * @param position the data position of the header
+     */
+    private HeaderCache getHeader(RecyclerView parent, BaseQuickAdapter adapter, int position) {
+        int adapterPosition = position + adapter.getDataOffset();
+        int viewType = adapter.getItemViewType(adapterPosition);
+        HeaderCache header = mHeaders.get(viewType);
+        if (header == null) {
+            header = new HeaderCache((BaseViewHolder) adapter.createViewHolder(parent, viewType));
+            mHeaders.put(viewType, header);
+        }
+        int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (header.boundPosition != adapterPosition || header.width != width) {
+            // not onBindViewHolder, drawing the header must not request load more or count as a bind
+            ((SectionAdapter) adapter).bindSectionHeader(header.holder, position);
+            header.boundPosition = adapterPosition;
+            header.width = width;
+            header.render(parent, width);
+        }
+        return header;
+    }
+
+    private void trackRecyclerView(@Nullable RecyclerView recyclerView) {
+        if (recyclerView == mRecyclerView) {
+            return;
+        }
+        if (mRecyclerView != null) {
+            mRecyclerView.removeOnAttachStateChangeListener(mAttachListener);
+            attachAdapter(null);
+        }
+        mRecyclerView = recyclerView;
+        if (recyclerView != null) {
+            recyclerView.addOnAttachStateChangeListener(mAttachListener);
+        }
+    }
+
+    private void attachAdapter(@Nullable RecyclerView.Adapter adapter) {
+        if (adapter == mAdapter) {
+            return;
+        }
+        if (mAdapter != null) {
+            mAdapter.unregisterAdapterDataObserver(mDataObserver);
+        }
+        mHeaders.clear();
+        mAdapter = adapter;
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(mDataObserver);
+        }
+    }
+
+    private static int findFirstVisiblePosition(RecyclerView parent, int top) {
+        int first = RecyclerView.NO_POSITION;
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            if (child.getBottom() <= top) {
+                continue;
+            }
+            int position = parent.getChildAdapterPosition(child);
+            if (position != RecyclerView.NO_POSITION && (first == RecyclerView.NO_POSITION || position < first)) {
+                first = position;
+            }
+        }
+        return first;
+    }
+
+    @Nullable
+    private static View findChild(RecyclerView parent, int position) {
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            if (parent.getChildAdapterPosition(child) == position) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private static final class HeaderCache {
+        final BaseViewHolder holder;
+        int boundPosition = RecyclerView.NO_POSITION;
+        int width;
+        @Nullable
+        Bitmap bitmap;
+        private final Canvas mCanvas = new Canvas();
+
+        HeaderCache(BaseViewHolder holder) {
+            this.holder = holder;
+        }
+
+        void render(RecyclerView parent, int width) {
+            View view = holder.itemView;
+            ViewGroup.LayoutParams lp = view.getLayoutParams();
+            int heightSpec;
+            if (lp != null && lp.height >= 0) {
+                heightSpec = View.MeasureSpec.makeMeasureSpec(lp.height, View.MeasureSpec.EXACTLY);
+            } else {
+                heightSpec = View.MeasureSpec.makeMeasureSpec(parent.getHeight(), View.MeasureSpec.AT_MOST);
+            }
+            view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY), heightSpec);
+            view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+            int height = view.getMeasuredHeight();
+            if (width <= 0 || height <= 0) {
+                bitmap = null;
+                return;
+            }
+            if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+                if (bitmap != null) {
+                    bitmap.recycle();
+                }
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } else {
+                bitmap.eraseColor(0);
+            }
+            mCanvas.setBitmap(bitmap);
+            view.draw(mCanvas);
+            mCanvas.setBitmap(null);
+        }
+    }
+}
@@ -7,6 +7,10 @@ import androidx.recyclerview.widget.ListUpdateCallback;
 
 import com.chad.library.adapter.base.BaseQuickAdapter;
 
+/**
+ * Forwards the updates of a diff to the adapter. Positions are data positions,
+ * the header offset is applied by {@link com.chad.library.adapter.base.AdapterDataObserverProxy}.
+ */
 public final class BaseQuickAdapterListUpdateCallback implements ListUpdateCallback {
 
     @NonNull
@@ -17,19 +21,19 @@ public final class BaseQuickAdapterListUpdateCallback implements ListUpdateCallb
     }
 
     public void onInserted(int position, int count) {
-        this.mAdapter.notifyItemRangeInserted(position + mAdapter.getHeaderLayoutCount(), count);
+        this.mAdapter.notifyItemRangeInserted(position, count);
     }
 
     public void onRemoved(int position, int count) {
-        this.mAdapter.notifyItemRangeRemoved(position + mAdapter.getHeaderLayoutCount(), count);
+        this.mAdapter.notifyItemRangeRemoved(position, count);
     }
 
     public void onMoved(int fromPosition, int toPosition) {
-        this.mAdapter.notifyItemMoved(fromPosition + mAdapter.getHeaderLayoutCount(), toPosition + mAdapter.getHeaderLayoutCount());
+        this.mAdapter.notifyItemMoved(fromPosition, toPosition);
     }
 
     @Override
     public void onChanged(int position, int count, @Nullable Object payload) {
-        this.mAdapter.notifyItemRangeChanged(position + mAdapter.getHeaderLayoutCount(), count, payload);
+        this.mAdapter.notifyItemRangeChanged(position, count, payload);
     }
 }
@@ -17,6 +17,16 @@ public abstract class BaseQuickDiffCallback<T> extends DiffUtil.Callback {
 
     private List<T> newList;
     private List<T> oldList;
+    @Nullable
+    private ChangeMasks changeMasks;
+    private boolean contentHashEnabled;
+    /**
+     * the content hashes by list position, computed once per diff
+     */
+    private int[] oldHashes;
+    private int[] newHashes;
+    private boolean[] oldHashed;
+    private boolean[] newHashed;
 
     public BaseQuickDiffCallback(@Nullable List<T> newList) {
         this.newList = newList == null ? new ArrayList<T>() : newList;
@@ -32,6 +42,30 @@ public abstract class BaseQuickDiffCallback<T> extends DiffUtil.Callback {
 
     public void setOldList(@Nullable List<T> oldList) {
         this.oldList = oldList == null ? new ArrayList<T>() : oldList;
+        oldHashes = null;
+        newHashes = null;
+    }
+
+    /**
+     * Compare the content hashes of two items before {@link #areContentsTheSame(Object, Object)},
+     * which is then only called if they match. The hash of an item is computed once per diff, see
+     * {@link ContentHashCache#hashOf(Object)}. Only for callbacks whose areContentsTheSame agrees
+     * with the hashes, e.g. an equals based one.
+     * <p>
+     * 开启后先比较内容哈希，哈希相同才调用 areContentsTheSame
+     */
+    public void setContentHashEnabled(boolean enabled) {
+        this.contentHashEnabled = enabled;
+    }
+
+    /**
+     * Where the masks of {@link #getChangeMask(Object, Object)} go. Set by
+     * {@link com.chad.library.adapter.base.BaseQuickAdapter#setNewDiffData(BaseQuickDiffCallback)},
+     * set it to {@link com.chad.library.adapter.base.BaseQuickAdapter#getChangeMasks()} before the
+     * result of an async diff is dispatched.
+     */
+    public void setChangeMasks(@Nullable ChangeMasks changeMasks) {
+        this.changeMasks = changeMasks;
     }
 
     @Override
@@ -51,13 +85,62 @@ public abstract class BaseQuickDiffCallback<T> extends DiffUtil.Callback {
 
     @Override
     public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        if (contentHashEnabled && oldHash(oldItemPosition) != newHash(newItemPosition)) {
+            return false;
+        }
         return areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
     }
 
+    /**
+     * Allocate the lazily created state up front, the parts of a {@link ChunkedDiff} call in from
+     * several threads. Each position is only touched by one of them.
+     */
+    void prepareConcurrentAccess() {
+        if (contentHashEnabled) {
+            ensureHashes();
+        }
+    }
+
+    private void ensureHashes() {
+        if (oldHashes == null) {
+            oldHashes = new int[oldList.size()];
+            oldHashed = new boolean[oldList.size()];
+            newHashes = new int[newList.size()];
+            newHashed = new boolean[newList.size()];
+        }
+    }
+
+    private int oldHash(int position) {
+        ensureHashes();
+        if (!oldHashed[position]) {
+            oldHashes[position] = ContentHashCache.hashOf(oldList.get(position));
+            oldHashed[position] = true;
+        }
+        return oldHashes[position];
+    }
+
+    private int newHash(int position) {
+        ensureHashes();
+        if (!newHashed[position]) {
+            newHashes[position] = ContentHashCache.hashOf(newList.get(position));
+            newHashed[position] = true;
+        }
+        return newHashes[position];
+    }
+
     @Nullable
     @Override
     public Object getChangePayload(int oldItemPosition, int newItemPosition) {
-        return getChangePayload(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        T oldItem = oldList.get(oldItemPosition);
+        T newItem = newList.get(newItemPosition);
+        if (changeMasks != null) {
+            long mask = getChangeMask(oldItem, newItem);
+            if (mask != 0) {
+                changeMasks.add(newItem, mask);
+                return ChangeMasks.PAYLOAD;
+            }
+        }
+        return getChangePayload(oldItem, newItem);
     }
 
     /**
@@ -85,4 +168,19 @@ public abstract class BaseQuickDiffCallback<T> extends DiffUtil.Callback {
     protected Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
         return null;
     }
+
+    /**
+     * Optional implementation, preferred over {@link #getChangePayload(Object, Object)}.
+     * The adapter gets the mask in
+     * {@link com.chad.library.adapter.base.BaseQuickAdapter#convertPayloads(com.chad.library.adapter.base.BaseViewHolder, Object, long)}.
+     * <p>
+     * 返回变化字段的位掩码，0 表示交给 getChangePayload 处理
+     *
+     * @param oldItem Old data
+     * @param newItem New data
+     * @return a bit per changed field, 0 to fall back to {@link #getChangePayload(Object, Object)}
+     */
+    protected long getChangeMask(@NonNull T oldItem, @NonNull T newItem) {
+        return 0;
+    }
 }
@@ -0,0 +1,131 @@
+package com.chad.library.adapter.base.diff;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * The pending change bitmasks of the items of an adapter, see
+ * {@link com.chad.library.adapter.base.BaseQuickAdapter#notifyItemChangedMask(int,long)} and
+ * {@link BaseQuickDiffCallback#getChangeMask(Object,Object)}.
+ * <p>
+ * RecyclerView only passes Object payloads, so an update carries the shared {@link #PAYLOAD} marker
+ * and its mask is kept here by item identity. The masks of several updates of an item are OR-ed,
+ * the bind takes the merged mask out again. Nothing is boxed or allocated per update.
+ * <p>
+ * Masks no bind takes, e.g. of rows off screen or removed, are dropped by the adapter after the frame
+ * that consumed the updates. A later bind with the marker but without a mask binds the whole item.
+ * <p>
+ * 以 long 位掩码表示 item 中变化的字段，多次更新按位或合并，不产生装箱对象
+ */
+public final class ChangeMasks {
+
+    /**
+     * The payload of an update whose mask is kept in a {@link ChangeMasks}.
+     */
+    public static final Object PAYLOAD = new Object() {
+        @Override
+        public String toString() {
+            return "ChangeMasks.PAYLOAD";
+        }
+    };
+
+    private Object[] mItems = new Object[16];
+    private long[] mMasks = new long[16];
+    private int mSize;
+
+    /**
+     * OR the mask into the pending mask of the item.
+     */
+    public void add(@NonNull Object item,long mask) {
+        if (mask == 0) {
+            return;
+        }
+        int index = indexOf(item);
+        if (mItems[index] != null) {
+            mMasks[index] |= mask;
+            return;
+        }
+        mItems[index] = item;
+        mMasks[index] = mask;
+        if (++mSize * 2 > mItems.length) {
+            grow();
+        }
+    }
+
+    /**
+     * @return the pending mask of the item, 0 if there is none. The item has no pending mask afterwards
+     */
+    public long take(@NonNull Object item) {
+        int index = indexOf(item);
+        if (mItems[index] == null) {
+            return 0;
+        }
+        long mask = mMasks[index];
+        removeAt(index);
+        return mask;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        if (mSize > 0) {
+            Arrays.fill(mItems,null);
+            mSize = 0;
+        }
+    }
+
+    /**
+     * @return the slot of the item, or the empty slot it would be put in
+     */
+    private int indexOf(Object item) {
+        int mask = mItems.length - 1;
+        int index = hash(item) & mask;
+        while (mItems[index] != null && mItems[index] != item) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Backward shift deletion, the probe sequences of the following items stay unbroken.
+     */
+    private void removeAt(int index) {
+        int mask = mItems.length - 1;
+        int next = (index + 1) & mask;
+        while (mItems[next] != null) {
+            int home = hash(mItems[next]) & mask;
+            // move the item into the hole if its home slot is not between the hole and its slot
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                mItems[index] = mItems[next];
+                mMasks[index] = mMasks[next];
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        mItems[index] = null;
+        mSize--;
+    }
+
+    private void grow() {
+        Object[] items = mItems;
+        long[] masks = mMasks;
+        mItems = new Object[items.length * 2];
+        mMasks = new long[items.length * 2];
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] != null) {
+                int index = indexOf(items[i]);
+                mItems[index] = items[i];
+                mMasks[index] = masks[i];
+            }
+        }
+    }
+
+    private static int hash(Object item) {
+        int h = System.identityHashCode(item);
+        // identity hashes are spread poorly in the low bits on some VMs
+        return h ^ (h >>> 16);
+    }
+}
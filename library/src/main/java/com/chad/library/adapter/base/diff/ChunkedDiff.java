@@ -0,0 +1,312 @@
+package com.chad.library.adapter.base.diff;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.chad.library.adapter.base.util.AdapterTrace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Diff of large lists in parallel chunks. Items whose key is unique in both lists and that keep their
+ * relative order serve as anchors, the lists are split at them and the parts between two anchors are
+ * diffed with {@link DiffUtil} on the executor. {@link Result#dispatchUpdatesTo(ListUpdateCallback)}
+ * dispatches the parts back to front, one ordered update stream that leaves the adapter with the same
+ * list as a sequential diff. Only moves between two parts are dispatched as a remove and an insert.
+ * <p>
+ * Lists shorter than two chunks are diffed in one part on the calling thread.
+ * <p>
+ * 按锚点 key 把新旧列表切分成多段并行计算 diff，再按顺序合并分发
+ */
+public final class ChunkedDiff {
+
+    /**
+     * the smallest part worth a task of its own
+     */
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    public interface KeyProvider<T> {
+        /**
+         * @return the key of the item, equal for the same item in both lists, null if it can not be an anchor
+         */
+        @Nullable
+        Object getKey(@NonNull T item);
+    }
+
+    private ChunkedDiff() {
+    }
+
+    /**
+     * Blocks until all parts are diffed, so it must not be called on the main thread. Pass the result
+     * to {@link com.chad.library.adapter.base.BaseQuickAdapter#setNewDiffData(Result, List)} on the
+     * main thread. The callback is called from several threads at once, it must only read the lists.
+     *
+     * @param callback a callback whose old list is set
+     * @param executor runs the parts, the calling thread diffs the last one itself and the parts the
+     *                 executor rejects
+     */
+    @NonNull
+    public static <T> Result calculateDiff(@NonNull BaseQuickDiffCallback<T> callback, @NonNull KeyProvider<T> keys,
+                                           boolean detectMoves, @NonNull Executor executor) {
+        int oldSize = callback.getOldListSize();
+        int newSize = callback.getNewListSize();
+        int parts = Math.min(Runtime.getRuntime().availableProcessors() * 2, newSize / MIN_CHUNK_SIZE);
+        callback.prepareConcurrentAccess();
+        int[] anchors = parts > 1 ? findAnchors(callback, keys, newSize / parts) : new int[0];
+        int anchorCount = anchors.length / 2;
+
+        final List<Part<T>> partList = new ArrayList<>(anchorCount + 1);
+        boolean[] anchorChanged = new boolean[anchorCount];
+        int oldStart = 0;
+        int newStart = 0;
+        for (int i = 0; i <= anchorCount; i++) {
+            int oldEnd = i < anchorCount ? anchors[i * 2] : oldSize;
+            int newEnd = i < anchorCount ? anchors[i * 2 + 1] : newSize;
+            partList.add(new Part<>(callback, oldStart, oldEnd, newStart, newEnd, detectMoves));
+            if (i < anchorCount) {
+                anchorChanged[i] = !callback.areContentsTheSame(oldEnd, newEnd);
+            }
+            oldStart = oldEnd + 1;
+            newStart = newEnd + 1;
+        }
+
+        final CountDownLatch latch = new CountDownLatch(partList.size() - 1);
+        for (int i = 0; i < partList.size() - 1; i++) {
+            final Part<T> part = partList.get(i);
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        part.calculate();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // a saturated or shut down executor, the latch would never be counted down
+                task.run();
+            }
+        }
+        partList.get(partList.size() - 1).calculate();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while diffing", e);
+        }
+        for (Part<T> part : partList) {
+            if (part.mError instanceof RuntimeException) {
+                throw (RuntimeException) part.mError;
+            } else if (part.mError instanceof Error) {
+                throw (Error) part.mError;
+            } else if (part.mError != null) {
+                throw new IllegalStateException("diff part failed", part.mError);
+            } else if (part.mResult == null && !part.isEmpty()) {
+                // dispatching the other parts would leave the adapter with a half diffed list
+                throw new IllegalStateException("diff part was not run, old " + part.mOldStart + " new " + part.mNewStart);
+            }
+        }
+        return new Result(callback, partList, anchors, anchorChanged);
+    }
+
+    /**
+     * @return pairs of old and new positions, increasing in both lists, about {@code chunkSize} new positions apart
+     */
+    private static <T> int[] findAnchors(BaseQuickDiffCallback<T> callback, KeyProvider<T> keys, int chunkSize) {
+        List<T> oldList = callback.getOldList();
+        List<T> newList = callback.getNewList();
+        // -1 marks a key that is not unique
+        HashMap<Object, Integer> oldPositions = new HashMap<>(oldList.size() * 2);
+        for (int i = 0; i < oldList.size(); i++) {
+            Object key = keys.getKey(oldList.get(i));
+            if (key != null && oldPositions.put(key, i) != null) {
+                oldPositions.put(key, -1);
+            }
+        }
+        HashSet<Object> newKeys = new HashSet<>(newList.size() * 2);
+        HashSet<Object> newDuplicates = new HashSet<>();
+        for (int i = 0; i < newList.size(); i++) {
+            Object key = keys.getKey(newList.get(i));
+            if (key != null && !newKeys.add(key)) {
+                newDuplicates.add(key);
+            }
+        }
+
+        int[] anchors = new int[16];
+        int count = 0;
+        int lastOld = -1;
+        int next = chunkSize;
+        for (int n = next; n < newList.size() - 1; n++) {
+            if (n < next) {
+                continue;
+            }
+            Object key = keys.getKey(newList.get(n));
+            if (key == null || newDuplicates.contains(key)) {
+                continue;
+            }
+            Integer o = oldPositions.get(key);
+            if (o == null || o <= lastOld || !callback.areItemsTheSame(o, n)) {
+                continue;
+            }
+            if (count * 2 + 2 > anchors.length) {
+                int[] grown = new int[anchors.length * 2];
+                System.arraycopy(anchors, 0, grown, 0, anchors.length);
+                anchors = grown;
+            }
+            anchors[count * 2] = o;
+            anchors[count * 2 + 1] = n;
+            count++;
+            lastOld = o;
+            next = n + chunkSize;
+        }
+        int[] result = new int[count * 2];
+        System.arraycopy(anchors, 0, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * The diffed parts, dispatched on the main thread.
+     */
+    public static final class Result {
+        private final BaseQuickDiffCallback<?> mCallback;
+        private final List<? extends Part<?>> mParts;
+        private final int[] mAnchors;
+        private final boolean[] mAnchorChanged;
+
+        Result(BaseQuickDiffCallback<?> callback, List<? extends Part<?>> parts, int[] anchors, boolean[] anchorChanged) {
+            mCallback = callback;
+            mParts = parts;
+            mAnchors = anchors;
+            mAnchorChanged = anchorChanged;
+        }
+
+        /**
+         * Back to front, the positions in front of a part are still those of the old list when it is dispatched.
+         */
+        public void dispatchUpdatesTo(@NonNull ListUpdateCallback updateCallback) {
+            OffsetCallback offsetCallback = new OffsetCallback(updateCallback);
+            for (int i = mParts.size() - 1; i >= 0; i--) {
+                Part<?> part = mParts.get(i);
+                if (part.mResult != null) {
+                    offsetCallback.mOffset = part.mOldStart;
+                    part.mResult.dispatchUpdatesTo(offsetCallback);
+                }
+                if (i > 0 && mAnchorChanged[i - 1]) {
+                    int oldPosition = mAnchors[(i - 1) * 2];
+                    int newPosition = mAnchors[(i - 1) * 2 + 1];
+                    updateCallback.onChanged(oldPosition, 1, mCallback.getChangePayload(oldPosition, newPosition));
+                }
+            }
+        }
+    }
+
+    private static final class Part<T> extends DiffUtil.Callback {
+        final BaseQuickDiffCallback<T> mCallback;
+        final int mOldStart;
+        final int mOldSize;
+        final int mNewStart;
+        final int mNewSize;
+        final boolean mDetectMoves;
+        DiffUtil.DiffResult mResult;
+        Throwable mError;
+
+        Part(BaseQuickDiffCallback<T> callback, int oldStart, int oldEnd, int newStart, int newEnd, boolean detectMoves) {
+            mCallback = callback;
+            mOldStart = oldStart;
+            mOldSize = oldEnd - oldStart;
+            mNewStart = newStart;
+            mNewSize = newEnd - newStart;
+            mDetectMoves = detectMoves;
+        }
+
+        boolean isEmpty() {
+            return mOldSize == 0 && mNewSize == 0;
+        }
+
+        void calculate() {
+            if (isEmpty()) {
+                return;
+            }
+            boolean traced = AdapterTrace.isEnabled();
+            if (traced) {
+                AdapterTrace.beginSection("BRVAH diff part n=" + mNewSize);
+            }
+            try {
+                mResult = DiffUtil.calculateDiff(this, mDetectMoves);
+            } catch (Throwable e) {
+                // rethrown on the calling thread of calculateDiff
+                mError = e;
+            } finally {
+                if (traced) {
+                    AdapterTrace.endSection();
+                }
+            }
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldSize;
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewSize;
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mCallback.areItemsTheSame(mOldStart + oldItemPosition, mNewStart + newItemPosition);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return mCallback.areContentsTheSame(mOldStart + oldItemPosition, mNewStart + newItemPosition);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return mCallback.getChangePayload(mOldStart + oldItemPosition, mNewStart + newItemPosition);
+        }
+    }
+
+    private static final class OffsetCallback implements ListUpdateCallback {
+        private final ListUpdateCallback mTarget;
+        int mOffset;
+
+        OffsetCallback(ListUpdateCallback target) {
+            mTarget = target;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            mTarget.onInserted(mOffset + position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            mTarget.onRemoved(mOffset + position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            mTarget.onMoved(mOffset + fromPosition, mOffset + toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            mTarget.onChanged(mOffset + position, count, payload);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.chad.library.adapter.base.diff;
+
+import androidx.annotation.NonNull;
+
+import com.chad.library.adapter.base.entity.ContentHashable;
+
+import java.util.Arrays;
+
+/**
+ * The content hashes of items by identity, each item is hashed once. The diff compares the hashes
+ * first and only calls {@code equals} if they match.
+ * <p>
+ * The hash of an item is kept until {@link #clear()}, it must not be changed in place meanwhile.
+ * The table is cleared when it reaches its maximum size. Thread safe, the paged diff runs in the background.
+ * <p>
+ * 按对象identity缓存内容哈希，每个 item 只计算一次
+ */
+public final class ContentHashCache {
+
+    private final int mMaxSize;
+    private Object[] mItems = new Object[64];
+    private int[] mHashes = new int[64];
+    private int mSize;
+
+    /**
+     * @param maxSize the number of hashes kept, e.g. twice the size of the lists
+     */
+    public ContentHashCache(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * @return {@link ContentHashable#contentHash()} if the item implements it, {@code hashCode()} otherwise
+     */
+    public static int hashOf(@NonNull Object item) {
+        return item instanceof ContentHashable ? ((ContentHashable) item).contentHash() : item.hashCode();
+    }
+
+    /**
+     * @return whether the items may be equal, false if their content hashes differ
+     */
+    public boolean mayBeEqual(@NonNull Object a, @NonNull Object b) {
+        return a == b || get(a) == get(b);
+    }
+
+    public synchronized int get(@NonNull Object item) {
+        int mask = mItems.length - 1;
+        int index = System.identityHashCode(item) & mask;
+        while (mItems[index] != null) {
+            if (mItems[index] == item) {
+                return mHashes[index];
+            }
+            index = (index + 1) & mask;
+        }
+        int hash = hashOf(item);
+        if (mSize >= mMaxSize) {
+            clear();
+        } else if ((mSize + 1) * 2 > mItems.length) {
+            grow();
+        } else {
+            mItems[index] = item;
+            mHashes[index] = hash;
+            mSize++;
+            return hash;
+        }
+        put(item, hash);
+        return hash;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(mItems, null);
+        mSize = 0;
+    }
+
+    private void put(Object item, int hash) {
+        int mask = mItems.length - 1;
+        int index = System.identityHashCode(item) & mask;
+        while (mItems[index] != null) {
+            index = (index + 1) & mask;
+        }
+        mItems[index] = item;
+        mHashes[index] = hash;
+        mSize++;
+    }
+
+    private void grow() {
+        Object[] items = mItems;
+        int[] hashes = mHashes;
+        mItems = new Object[items.length * 2];
+        mHashes = new int[items.length * 2];
+        mSize = 0;
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] != null) {
+                put(items[i], hashes[i]);
+            }
+        }
+    }
+}
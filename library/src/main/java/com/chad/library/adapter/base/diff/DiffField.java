@@ -0,0 +1,28 @@
+package com.chad.library.adapter.base.diff;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field that is shown by the item view. The contents of two items are the same if all their
+ * fields are equal, every changed field sets its bit in {@link DiffSpec#getChangeMask(Object, Object)}.
+ * The generated spec has a {@code long} constant per field, named after the field in upper snake
+ * case, for {@link com.chad.library.adapter.base.BaseQuickAdapter#convertPayloads(com.chad.library.adapter.base.BaseViewHolder, Object, long)}.
+ * <p>
+ * Primitives are compared by value, arrays with {@code Arrays.equals}, other fields with {@code equals}.
+ * Private fields are read through their getter ({@code getName()}, {@code isName()} or {@code name()}),
+ * declared or inherited. Two fields must not map to the same constant, e.g. {@code userName} and {@code user_name}.
+ * <p>
+ * 标记参与内容比较的字段，每个字段对应变化掩码中的一位
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface DiffField {
+    /**
+     * The bit of the field in the change mask, 0 to 63. By default the fields without an explicit bit
+     * take the free bits in declaration order.
+     */
+    int bit() default -1;
+}
@@ -0,0 +1,18 @@
+package com.chad.library.adapter.base.diff;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field that identifies an item, two items are the same item if all their key fields are
+ * equal. The diff-compiler processor generates a {@link DiffSpec} named {@code <Class>_DiffSpec}
+ * for every class with key fields.
+ * <p>
+ * 标记 item 的唯一标识字段，由 diff-compiler 生成 DiffSpec
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface DiffKey {
+}
@@ -0,0 +1,19 @@
+package com.chad.library.adapter.base.diff;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Field by field comparison of two items, generated from {@link DiffKey} and {@link DiffField}.
+ * Use it with {@link DiffSpecCallback} or, for the paged adapters, {@link DiffSpecItemCallback}.
+ */
+public interface DiffSpec<T> {
+
+    boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+    boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+    /**
+     * @return the bits of the changed {@link DiffField}s, 0 if there are none
+     */
+    long getChangeMask(@NonNull T oldItem, @NonNull T newItem);
+}
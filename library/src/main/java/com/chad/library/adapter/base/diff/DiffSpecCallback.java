@@ -0,0 +1,36 @@
+package com.chad.library.adapter.base.diff;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * A {@link BaseQuickDiffCallback} that compares with a generated {@link DiffSpec}, e.g.
+ * {@code adapter.setNewDiffData(new DiffSpecCallback<>(newData, new Movie_DiffSpec()))}.
+ * The changed fields reach the adapter as a mask.
+ */
+public class DiffSpecCallback<T> extends BaseQuickDiffCallback<T> {
+
+    private final DiffSpec<T> mSpec;
+
+    public DiffSpecCallback(@Nullable List<T> newList, @NonNull DiffSpec<T> spec) {
+        super(newList);
+        mSpec = spec;
+    }
+
+    @Override
+    protected boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+        return mSpec.areItemsTheSame(oldItem, newItem);
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+        return mSpec.areContentsTheSame(oldItem, newItem);
+    }
+
+    @Override
+    protected long getChangeMask(@NonNull T oldItem, @NonNull T newItem) {
+        return mSpec.getChangeMask(oldItem, newItem);
+    }
+}
@@ -0,0 +1,50 @@
+package com.chad.library.adapter.base.diff;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * A {@link DiffUtil.ItemCallback} that compares with a generated {@link DiffSpec}, for the paged
+ * constructors of {@link com.chad.library.adapter.base.BaseQuickAdapter}. The adapter the callback
+ * is passed to sets its {@link ChangeMasks}, the changed fields then reach it as a mask. Without
+ * masks a changed item is bound in full.
+ */
+public class DiffSpecItemCallback<T> extends DiffUtil.ItemCallback<T> {
+
+    private final DiffSpec<T> mSpec;
+    @Nullable
+    private ChangeMasks mChangeMasks;
+
+    public DiffSpecItemCallback(@NonNull DiffSpec<T> spec) {
+        mSpec = spec;
+    }
+
+    public void setChangeMasks(@Nullable ChangeMasks changeMasks) {
+        mChangeMasks = changeMasks;
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+        return mSpec.areItemsTheSame(oldItem, newItem);
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+        return mSpec.areContentsTheSame(oldItem, newItem);
+    }
+
+    @Nullable
+    @Override
+    public Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
+        if (mChangeMasks == null) {
+            return null;
+        }
+        long mask = mSpec.getChangeMask(oldItem, newItem);
+        if (mask == 0) {
+            return null;
+        }
+        mChangeMasks.add(newItem, mask);
+        return ChangeMasks.PAYLOAD;
+    }
+}
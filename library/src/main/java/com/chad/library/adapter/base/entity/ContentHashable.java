@@ -0,0 +1,11 @@
+package com.chad.library.adapter.base.entity;
+
+/**
+ * Implemented by items that can hash their content cheaper or more precisely than {@code hashCode()},
+ * used by the content hash mode of the diff callbacks. Items with equal content must return equal hashes.
+ * <p>
+ * 内容哈希，diff 时先比较哈希，哈希相同再调用 equals
+ */
+public interface ContentHashable {
+    int contentHash();
+}
@@ -0,0 +1,20 @@
+package com.chad.library.adapter.base.listener;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Implemented next to {@link OnItemDragListener}: all moves of one drag gesture as one net move.
+ * {@link OnItemDragListener#onItemDragMoving} is still called for every single step.
+ * <p>
+ * 一次拖拽结束后，合并后的移动结果
+ */
+public interface OnItemDragMovedListener {
+    /**
+     * Called when a drag ends that changed the position of the item, before
+     * {@link OnItemDragListener#onItemDragEnd}.
+     *
+     * @param from data position of the item when the drag started
+     * @param to data position of the item when the drag ended
+     */
+    void onItemDragMoved(RecyclerView.ViewHolder viewHolder, int from, int to);
+}
@@ -7,15 +7,14 @@ import android.view.GestureDetector;
 import android.view.HapticFeedbackConstants;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewParent;
 
 import com.chad.library.adapter.base.BaseQuickAdapter;
 import com.chad.library.adapter.base.BaseViewHolder;
 
-import java.util.Set;
-
 import static com.chad.library.adapter.base.BaseQuickAdapter.EMPTY_VIEW;
-import static com.chad.library.adapter.base.BaseQuickAdapter.FOOTER_VIEW;
-import static com.chad.library.adapter.base.BaseQuickAdapter.HEADER_VIEW;
+import static com.chad.library.adapter.base.BaseQuickAdapter.isFooterViewType;
+import static com.chad.library.adapter.base.BaseQuickAdapter.isHeaderViewType;
 import static com.chad.library.adapter.base.BaseQuickAdapter.LOADING_VIEW;
 
 /**
@@ -37,6 +36,17 @@ public abstract class SimpleClickListener implements RecyclerView.OnItemTouchLis
     private boolean mIsPrepressed = false;
     private boolean mIsShowPress = false;
     private View mPressedView = null;
+    private View mViewToReset;
+    private final Runnable mResetPressedRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mViewToReset != null) {
+                mViewToReset.setPressed(false);
+                mViewToReset = null;
+            }
+        }
+    };
+    private final int[] mLocation = new int[2];
 
     @Override
     public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
@@ -109,50 +119,29 @@ public abstract class SimpleClickListener implements RecyclerView.OnItemTouchLis
                 if (isHeaderOrFooterPosition(position)) {
                     return false;
                 }
-                position -= baseQuickAdapter.getHeaderLayoutCount();
-
-                Set<Integer> childClickViewIds = vh.getChildClickViewIds();
-                Set<Integer> nestViewIds = vh.getNestViews();
-                if (childClickViewIds != null && childClickViewIds.size() > 0) {
-                    for (Integer childClickViewId : childClickViewIds) {
-                        View childView = pressedView.findViewById(childClickViewId);
-                        if (childView != null) {
-                            if (inRangeOfView(childView, e) && childView.isEnabled()) {
-                                if (nestViewIds != null && nestViewIds.contains(childClickViewId)) {
-                                    return false;
-                                }
-                                setPressViewHotSpot(e, childView);
-                                childView.setPressed(true);
-                                onItemChildClick(baseQuickAdapter, childView, position);
-                                resetPressedView(childView);
-                                return true;
-                            } else {
-                                childView.setPressed(false);
+                position -= baseQuickAdapter.getDataOffset();
+
+                int[] childClickViewIds = vh.getChildClickViewIdArray();
+                for (int childClickViewId : childClickViewIds) {
+                    View childView = vh.getView(childClickViewId);
+                    if (childView != null) {
+                        if (childView.isEnabled() && hitTest(pressedView, childView, e)) {
+                            if (vh.isNestView(childClickViewId)) {
+                                return false;
                             }
-                        }
-                    }
-                    setPressViewHotSpot(e, pressedView);
-                    mPressedView.setPressed(true);
-                    for (Integer childClickViewId : childClickViewIds) {
-                        View childView = pressedView.findViewById(childClickViewId);
-                        if (childView != null) {
+                            setPressViewHotSpot(e, childView);
+                            childView.setPressed(true);
+                            onItemChildClick(baseQuickAdapter, childView, position);
+                            resetPressedView(childView);
+                            return true;
+                        } else {
                             childView.setPressed(false);
                         }
                     }
-                    onItemClick(baseQuickAdapter, pressedView, position);
-                } else {
-                    setPressViewHotSpot(e, pressedView);
-                    mPressedView.setPressed(true);
-                    if (childClickViewIds != null && childClickViewIds.size() > 0) {
-                        for (Integer childClickViewId : childClickViewIds) {
-                            View childView = pressedView.findViewById(childClickViewId);
-                            if (childView != null) {
-                                childView.setPressed(false);
-                            }
-                        }
-                    }
-                    onItemClick(baseQuickAdapter, pressedView, position);
                 }
+                setPressViewHotSpot(e, pressedView);
+                mPressedView.setPressed(true);
+                onItemClick(baseQuickAdapter, pressedView, position);
                 resetPressedView(pressedView);
 
             }
@@ -161,15 +150,13 @@ public abstract class SimpleClickListener implements RecyclerView.OnItemTouchLis
 
         private void resetPressedView(final View pressedView) {
             if (pressedView != null) {
-                pressedView.postDelayed(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (pressedView != null) {
-                            pressedView.setPressed(false);
-                        }
-
-                    }
-                }, 50);
+                if (mViewToReset != null && mViewToReset != pressedView) {
+                    // the last reset is still pending, do it now to reuse the runnable
+                    mViewToReset.setPressed(false);
+                }
+                mViewToReset = pressedView;
+                recyclerView.removeCallbacks(mResetPressedRunnable);
+                recyclerView.postDelayed(mResetPressedRunnable, 50);
             }
 
             mIsPrepressed = false;
@@ -190,35 +177,31 @@ public abstract class SimpleClickListener implements RecyclerView.OnItemTouchLis
                     return;
                 }
                 if (!isHeaderOrFooterPosition(position)) {
-                    Set<Integer> longClickViewIds = vh.getItemChildLongClickViewIds();
-                    Set<Integer> nestViewIds = vh.getNestViews();
-                    if (longClickViewIds != null && longClickViewIds.size() > 0) {
-                        for (Integer longClickViewId : longClickViewIds) {
-                            View childView = mPressedView.findViewById(longClickViewId);
-                            if (inRangeOfView(childView, e) && childView.isEnabled()) {
-                                if (nestViewIds != null && nestViewIds.contains(longClickViewId)) {
-                                    isChildLongClick = true;
-                                    break;
-                                }
-                                setPressViewHotSpot(e, childView);
-                                onItemChildLongClick(baseQuickAdapter, childView, position - baseQuickAdapter.getHeaderLayoutCount());
-                                childView.setPressed(true);
-                                mIsShowPress = true;
+                    position -= baseQuickAdapter.getDataOffset();
+                    int[] longClickViewIds = vh.getItemChildLongClickViewIdArray();
+                    for (int longClickViewId : longClickViewIds) {
+                        View childView = vh.getView(longClickViewId);
+                        if (childView != null && childView.isEnabled() && hitTest(mPressedView, childView, e)) {
+                            if (vh.isNestView(longClickViewId)) {
                                 isChildLongClick = true;
                                 break;
                             }
+                            setPressViewHotSpot(e, childView);
+                            onItemChildLongClick(baseQuickAdapter, childView, position);
+                            childView.setPressed(true);
+                            mIsShowPress = true;
+                            isChildLongClick = true;
+                            break;
                         }
                     }
                     if (!isChildLongClick) {
-                        onItemLongClick(baseQuickAdapter, mPressedView, position - baseQuickAdapter.getHeaderLayoutCount());
+                        onItemLongClick(baseQuickAdapter, mPressedView, position);
                         setPressViewHotSpot(e, mPressedView);
                         mPressedView.setPressed(true);
-                        if (longClickViewIds != null) {
-                            for (Integer longClickViewId : longClickViewIds) {
-                                View childView = mPressedView.findViewById(longClickViewId);
-                                if (childView != null) {
-                                    childView.setPressed(false);
-                                }
+                        for (int longClickViewId : longClickViewIds) {
+                            View childView = vh.getView(longClickViewId);
+                            if (childView != null) {
+                                childView.setPressed(false);
                             }
                         }
                         mIsShowPress = true;
@@ -286,8 +269,13 @@ public abstract class SimpleClickListener implements RecyclerView.OnItemTouchLis
      */
     public abstract void onItemChildLongClick(BaseQuickAdapter adapter, View view, int position);
 
+    /**
+     * @deprecated taps are no longer tested with it, override {@link #hitTest(View, View, MotionEvent)}
+     * to customize which child view a tap hits
+     */
+    @Deprecated
     public boolean inRangeOfView(View view, MotionEvent ev) {
-        int[] location = new int[2];
+        int[] location = mLocation;
         if (view == null || !view.isShown()) {
             return false;
         }
@@ -303,6 +291,32 @@ public abstract class SimpleClickListener implements RecyclerView.OnItemTouchLis
         return true;
     }
 
+    /**
+     * Whether the event of the RecyclerView is inside of {@code child}, a descendant of the item view.
+     * Walks up from the child in local coordinates, translations and scrolling included,
+     * scale and rotation are not. Called for every child click and long click view of a tap.
+     */
+    protected boolean hitTest(View itemView, View child, MotionEvent e) {
+        if (!child.isShown()) {
+            return false;
+        }
+        float x = e.getX() - itemView.getLeft() - itemView.getTranslationX();
+        float y = e.getY() - itemView.getTop() - itemView.getTranslationY();
+        View view = child;
+        while (view != itemView) {
+            x -= view.getLeft() + view.getTranslationX();
+            y -= view.getTop() + view.getTranslationY();
+            ViewParent parent = view.getParent();
+            if (!(parent instanceof View)) {
+                return false;
+            }
+            view = (View) parent;
+            x += view.getScrollX();
+            y += view.getScrollY();
+        }
+        return x >= 0 && x <= child.getWidth() && y >= 0 && y <= child.getHeight();
+    }
+
     private boolean isHeaderOrFooterPosition(int position) {
         /**
          *  have a headview and EMPTY_VIEW FOOTER_VIEW LOADING_VIEW
@@ -315,11 +329,11 @@ public abstract class SimpleClickListener implements RecyclerView.OnItemTouchLis
             }
         }
         int type = baseQuickAdapter.getItemViewType(position);
-        return (type == EMPTY_VIEW || type == HEADER_VIEW || type == FOOTER_VIEW || type == LOADING_VIEW);
+        return isHeaderOrFooterView(type);
     }
 
     private boolean isHeaderOrFooterView(int type) {
-        return (type == EMPTY_VIEW || type == HEADER_VIEW || type == FOOTER_VIEW || type == LOADING_VIEW);
+        return (type == EMPTY_VIEW || isHeaderViewType(type) || isFooterViewType(type) || type == LOADING_VIEW);
     }
 }
 
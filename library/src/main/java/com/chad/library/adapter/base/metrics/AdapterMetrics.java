@@ -0,0 +1,50 @@
+package com.chad.library.adapter.base.metrics;
+
+/**
+ * Timings of the hot paths of an adapter, see
+ * {@link com.chad.library.adapter.base.BaseQuickAdapter#setAdapterMetrics(AdapterMetrics)}.
+ * Called on the main thread, durations are in nanoseconds. {@link RecordingAdapterMetrics}
+ * aggregates them into histograms.
+ * <p>
+ * The diff of a PagedList passed to {@code submitList} runs in the differ of the paging library on
+ * its own executor and is not reported by {@link #onDiffCalculated(int, int, long)} or
+ * {@link #onDiffDispatched(long)}, only the notify calls it dispatches are.
+ * <p>
+ * 适配器耗时统计：创建、绑定、diff、notify 与加载更多
+ */
+public interface AdapterMetrics {
+
+    int NOTIFY_DATA_SET_CHANGED = 0;
+    int NOTIFY_RANGE_CHANGED = 1;
+    int NOTIFY_RANGE_INSERTED = 2;
+    int NOTIFY_RANGE_REMOVED = 3;
+    int NOTIFY_RANGE_MOVED = 4;
+    int NOTIFY_TYPE_COUNT = 5;
+
+    void onCreateViewHolder(int viewType, long durationNanos);
+
+    /**
+     * @param partial whether it was a bind with payloads
+     */
+    void onBindViewHolder(int viewType, long durationNanos, boolean partial);
+
+    void onDiffCalculated(int oldSize, int newSize, long durationNanos);
+
+    void onDiffDispatched(long durationNanos);
+
+    /**
+     * @param type one of the NOTIFY constants
+     * @param positionStart data position, 0 for {@link #NOTIFY_DATA_SET_CHANGED}, the adapter position
+     *                      for a row outside of the data (header, footer, empty or load more)
+     * @param itemCount the item count of the data for {@link #NOTIFY_DATA_SET_CHANGED}
+     */
+    void onNotify(int type, int positionStart, int itemCount);
+
+    /**
+     * From the load more request to its result.
+     *
+     * @param status the load more status after it, {@link com.chad.library.adapter.base.loadmore.LoadMoreView#STATUS_DEFAULT}
+     * when complete, STATUS_FAIL or STATUS_END
+     */
+    void onLoadMoreFinished(int status, long durationNanos);
+}
@@ -0,0 +1,138 @@
+package com.chad.library.adapter.base.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non negative values with a fixed relative precision, like HdrHistogram: every
+ * power of two is split into {@value #SUB_BUCKETS} linear buckets, the upper bound of a bucket is at
+ * most about 6% above the values in it. Recording is an index computation and an increment, the
+ * bucket array is allocated once. Not thread safe.
+ * <p>
+ * 对数-线性分桶的直方图，记录时不分配内存
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * values up to 2^44, 4.8 hours in nanoseconds, larger ones go to the last bucket
+     */
+    private static final int MAX_MAGNITUDE = 44;
+    private static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] mCounts;
+    private long mTotalCount;
+    private long mSum;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    public LogHistogram() {
+        mCounts = new long[BUCKET_COUNT];
+    }
+
+    private LogHistogram(LogHistogram source) {
+        mCounts = source.mCounts.clone();
+        mTotalCount = source.mTotalCount;
+        mSum = source.mSum;
+        mMin = source.mMin;
+        mMax = source.mMax;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        mCounts[bucketOf(value)]++;
+        mTotalCount++;
+        mSum += value;
+        if (value < mMin) {
+            mMin = value;
+        }
+        if (value > mMax) {
+            mMax = value;
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(mCounts, 0);
+        mTotalCount = 0;
+        mSum = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    public LogHistogram copy() {
+        return new LogHistogram(this);
+    }
+
+    public long getTotalCount() {
+        return mTotalCount;
+    }
+
+    public long getMin() {
+        return mTotalCount == 0 ? 0 : mMin;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public double getMean() {
+        return mTotalCount == 0 ? 0 : (double) mSum / mTotalCount;
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return the upper bound of the bucket the percentile falls in, at most {@link #getMax()}
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (mTotalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mTotalCount));
+        long seen = 0;
+        for (int i = 0; i < mCounts.length; i++) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    public int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    public long getBucketCount(int bucket) {
+        return mCounts[bucket];
+    }
+
+    /**
+     * @return the largest value recorded into the bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return sub;
+        }
+        int shift = magnitude - 1;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Values below {@value #SUB_BUCKETS} have a bucket each, above them the top
+     * {@value #SUB_BUCKET_BITS} bits after the leading one pick the bucket of the magnitude.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int magnitude = shift + 1;
+        int bucket = magnitude * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+}
@@ -0,0 +1,221 @@
+package com.chad.library.adapter.base.metrics;
+
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.chad.library.adapter.base.loadmore.LoadMoreView;
+
+/**
+ * Aggregates the timings into {@link LogHistogram}s, per view type for create and bind. Recording
+ * only allocates the histograms of a view type the first time it is seen. {@link #snapshot()} copies
+ * the histograms, e.g. to upload them, and may be called from any thread.
+ * <p>
+ * 把耗时聚合到直方图中，snapshot 可在任意线程调用
+ */
+public class RecordingAdapterMetrics implements AdapterMetrics {
+
+    private final SparseArray<LogHistogram> mCreate = new SparseArray<>();
+    private final SparseArray<LogHistogram> mBind = new SparseArray<>();
+    private final SparseArray<LogHistogram> mPartialBind = new SparseArray<>();
+    private final LogHistogram mDiffCalculate = new LogHistogram();
+    private final LogHistogram mDiffDispatch = new LogHistogram();
+    private final LogHistogram mLoadMore = new LogHistogram();
+    private final long[] mLoadMoreResults = new long[3];
+    private final LogHistogram[] mNotifyRanges = new LogHistogram[NOTIFY_TYPE_COUNT];
+
+    public RecordingAdapterMetrics() {
+        for (int i = 0; i < NOTIFY_TYPE_COUNT; i++) {
+            mNotifyRanges[i] = new LogHistogram();
+        }
+    }
+
+    @Override
+    public synchronized void onCreateViewHolder(int viewType, long durationNanos) {
+        histogram(mCreate, viewType).record(durationNanos);
+    }
+
+    @Override
+    public synchronized void onBindViewHolder(int viewType, long durationNanos, boolean partial) {
+        histogram(partial ? mPartialBind : mBind, viewType).record(durationNanos);
+    }
+
+    @Override
+    public synchronized void onDiffCalculated(int oldSize, int newSize, long durationNanos) {
+        mDiffCalculate.record(durationNanos);
+    }
+
+    @Override
+    public synchronized void onDiffDispatched(long durationNanos) {
+        mDiffDispatch.record(durationNanos);
+    }
+
+    @Override
+    public synchronized void onNotify(int type, int positionStart, int itemCount) {
+        mNotifyRanges[type].record(itemCount);
+    }
+
+    @Override
+    public synchronized void onLoadMoreFinished(int status, long durationNanos) {
+        mLoadMore.record(durationNanos);
+        mLoadMoreResults[resultIndex(status)]++;
+    }
+
+    @NonNull
+    public synchronized Snapshot snapshot() {
+        LogHistogram[] notifyRanges = new LogHistogram[NOTIFY_TYPE_COUNT];
+        for (int i = 0; i < NOTIFY_TYPE_COUNT; i++) {
+            notifyRanges[i] = mNotifyRanges[i].copy();
+        }
+        return new Snapshot(copy(mCreate), copy(mBind), copy(mPartialBind), mDiffCalculate.copy(),
+                mDiffDispatch.copy(), mLoadMore.copy(), mLoadMoreResults.clone(), notifyRanges);
+    }
+
+    public synchronized void reset() {
+        mCreate.clear();
+        mBind.clear();
+        mPartialBind.clear();
+        mDiffCalculate.reset();
+        mDiffDispatch.reset();
+        mLoadMore.reset();
+        for (int i = 0; i < mLoadMoreResults.length; i++) {
+            mLoadMoreResults[i] = 0;
+        }
+        for (LogHistogram histogram : mNotifyRanges) {
+            histogram.reset();
+        }
+    }
+
+    private static LogHistogram histogram(SparseArray<LogHistogram> histograms, int viewType) {
+        LogHistogram histogram = histograms.get(viewType);
+        if (histogram == null) {
+            histogram = new LogHistogram();
+            histograms.put(viewType, histogram);
+        }
+        return histogram;
+    }
+
+    private static SparseArray<LogHistogram> copy(SparseArray<LogHistogram> histograms) {
+        SparseArray<LogHistogram> copy = new SparseArray<>(histograms.size());
+        for (int i = 0; i < histograms.size(); i++) {
+            copy.put(histograms.keyAt(i), histograms.valueAt(i).copy());
+        }
+        return copy;
+    }
+
+    private static int resultIndex(int status) {
+        switch (status) {
+            case LoadMoreView.STATUS_FAIL:
+                return 1;
+            case LoadMoreView.STATUS_END:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * The histograms at the time of {@link #snapshot()}. Durations are in nanoseconds,
+     * the notify histograms hold the item counts of the notify calls.
+     */
+    public static final class Snapshot {
+        private final SparseArray<LogHistogram> mCreate;
+        private final SparseArray<LogHistogram> mBind;
+        private final SparseArray<LogHistogram> mPartialBind;
+        private final LogHistogram mDiffCalculate;
+        private final LogHistogram mDiffDispatch;
+        private final LogHistogram mLoadMore;
+        private final long[] mLoadMoreResults;
+        private final LogHistogram[] mNotifyRanges;
+
+        Snapshot(SparseArray<LogHistogram> create, SparseArray<LogHistogram> bind, SparseArray<LogHistogram> partialBind,
+                 LogHistogram diffCalculate, LogHistogram diffDispatch, LogHistogram loadMore, long[] loadMoreResults,
+                 LogHistogram[] notifyRanges) {
+            mCreate = create;
+            mBind = bind;
+            mPartialBind = partialBind;
+            mDiffCalculate = diffCalculate;
+            mDiffDispatch = diffDispatch;
+            mLoadMore = loadMore;
+            mLoadMoreResults = loadMoreResults;
+            mNotifyRanges = notifyRanges;
+        }
+
+        /**
+         * @return the view types that were created or bound
+         */
+        @NonNull
+        public int[] getViewTypes() {
+            SparseArray<Boolean> types = new SparseArray<>();
+            for (int i = 0; i < mCreate.size(); i++) {
+                types.put(mCreate.keyAt(i), Boolean.TRUE);
+            }
+            for (int i = 0; i < mBind.size(); i++) {
+                types.put(mBind.keyAt(i), Boolean.TRUE);
+            }
+            for (int i = 0; i < mPartialBind.size(); i++) {
+                types.put(mPartialBind.keyAt(i), Boolean.TRUE);
+            }
+            int[] result = new int[types.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = types.keyAt(i);
+            }
+            return result;
+        }
+
+        @Nullable
+        public LogHistogram getCreate(int viewType) {
+            return mCreate.get(viewType);
+        }
+
+        @Nullable
+        public LogHistogram getBind(int viewType) {
+            return mBind.get(viewType);
+        }
+
+        @Nullable
+        public LogHistogram getPartialBind(int viewType) {
+            return mPartialBind.get(viewType);
+        }
+
+        @NonNull
+        public LogHistogram getDiffCalculate() {
+            return mDiffCalculate;
+        }
+
+        @NonNull
+        public LogHistogram getDiffDispatch() {
+            return mDiffDispatch;
+        }
+
+        /**
+         * @return the round trips from the load more request to complete, fail or end
+         */
+        @NonNull
+        public LogHistogram getLoadMore() {
+            return mLoadMore;
+        }
+
+        public long getLoadMoreCompleteCount() {
+            return mLoadMoreResults[0];
+        }
+
+        public long getLoadMoreFailCount() {
+            return mLoadMoreResults[1];
+        }
+
+        public long getLoadMoreEndCount() {
+            return mLoadMoreResults[2];
+        }
+
+        /**
+         * @param type one of the NOTIFY constants of {@link AdapterMetrics}
+         * @return the item counts of the notify calls of the type, its total count is the number of calls
+         */
+        @NonNull
+        public LogHistogram getNotifyRanges(int type) {
+            return mNotifyRanges[type];
+        }
+    }
+}
@@ -26,8 +26,26 @@ public abstract class BaseItemProvider<T,V extends BaseViewHolder> {
     //Rewrite this method to return layout
     public abstract int layout();
 
+    //holder 创建时调用一次，只需设置一次的内容（监听、固定的样式）放在这里，不要放在 convert 中
+    //Called once when a holder of this provider is created, do the per holder setup (listeners,
+    //fixed styling) here instead of in convert. mContext is set already
+    public void onCreateViewHolder(V helper) {}
+
     public abstract void convert(V helper, T data, int position);
 
+    //在后台线程调用，生成 convert 所需的显示模型（格式化文本、span 等），只读取 data
+    //Called on a worker thread when the adapter prepares models, see MultipleItemRvAdapter#enableProviderPrepare().
+    //Build the immutable render model (formatted text, spans) here and only read data
+    public Object prepare(T data) {
+        return null;
+    }
+
+    //model 为 prepare 的结果，默认调用 convert(helper, data, position)
+    //model is the result of prepare, null without a prepare stage. Calls convert(helper, data, position) by default
+    public void convert(V helper, T data, Object model, int position) {
+        convert(helper, data, position);
+    }
+
     //子类若想实现条目点击事件则重写该方法
     //Subclasses override this method if you want to implement an item click event
     public void onClick(V helper, T data, int position){};
@@ -0,0 +1,48 @@
+package com.chad.library.adapter.base.util;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Named systrace / Perfetto sections around the adapter phases, e.g. "BRVAH bind FeedAdapter type=3".
+ * Off by default, turn it on with {@link #setEnabled(boolean)} in builds that are traced. Callers
+ * check {@link #isEnabled()} before they build a section name, a disabled check is a field read.
+ * <p>
+ * 在 systrace / Perfetto 中标记适配器各阶段，默认关闭
+ */
+public final class AdapterTrace {
+
+    /**
+     * longer names make Trace.beginSection throw
+     */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    private static volatile boolean sEnabled;
+
+    private AdapterTrace() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    /**
+     * Only call it if {@link #isEnabled()}, and end the section on the same thread.
+     */
+    @SuppressLint("NewApi")
+    public static void beginSection(@NonNull String name) {
+        Trace.beginSection(name.length() > MAX_SECTION_NAME_LENGTH ? name.substring(0, MAX_SECTION_NAME_LENGTH) : name);
+    }
+
+    @SuppressLint("NewApi")
+    public static void endSection() {
+        Trace.endSection();
+    }
+}
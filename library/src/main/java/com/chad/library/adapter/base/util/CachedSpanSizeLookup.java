@@ -0,0 +1,156 @@
+package com.chad.library.adapter.base.util;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * A {@link GridLayoutManager.SpanSizeLookup} that remembers the span index and the span group index
+ * of every position it has resolved.
+ * <p>
+ * The indices are computed in one forward pass and kept for the prefix of the adapter that did not
+ * change, a lookup inside that prefix is an array read. The observer returned by
+ * {@link #getDataObserver()} has to be registered on the adapter, a notify only drops the entries
+ * from its first position on. The full invalidation GridLayoutManager does for every adapter update
+ * is skipped for updates the observer has already seen.
+ * <p>
+ * 缓存 spanIndex / spanGroupIndex，数据变化时只清除变化位置之后的缓存
+ */
+public abstract class CachedSpanSizeLookup extends GridLayoutManager.SpanSizeLookup {
+
+    private int[] mSpanIndices = new int[0];
+    private int[] mGroupIndices = new int[0];
+    private int[] mSizes = new int[0];
+    private int mValidCount;
+    private int mSpanCount = -1;
+    /**
+     * an adapter update was applied by the observer and not laid out yet
+     */
+    private boolean mUpdateSeen;
+
+    private final RecyclerView.AdapterDataObserver mDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidateAll();
+            mUpdateSeen = true;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart,int itemCount) {
+            onUpdate(positionStart);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart,int itemCount,@Nullable Object payload) {
+            onUpdate(positionStart);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart,int itemCount) {
+            onUpdate(positionStart);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart,int itemCount) {
+            onUpdate(positionStart);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition,int toPosition,int itemCount) {
+            onUpdate(Math.min(fromPosition,toPosition));
+        }
+
+        private void onUpdate(int position) {
+            invalidateFrom(position);
+            mUpdateSeen = true;
+        }
+    };
+
+    public RecyclerView.AdapterDataObserver getDataObserver() {
+        return mDataObserver;
+    }
+
+    /**
+     * Drop the cached indices from {@code position} on, e.g. after the span size of that position changed.
+     */
+    public void invalidateFrom(int position) {
+        mValidCount = Math.max(0,Math.min(mValidCount,position));
+    }
+
+    public void invalidateAll() {
+        mValidCount = 0;
+    }
+
+    @Override
+    public void invalidateSpanIndexCache() {
+        if (!mUpdateSeen) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateSpanGroupIndexCache() {
+        if (!mUpdateSeen) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public int getSpanIndex(int position,int spanCount) {
+        ensureResolved(position,spanCount);
+        return mSpanIndices[position];
+    }
+
+    @Override
+    public int getSpanGroupIndex(int adapterPosition,int spanCount) {
+        ensureResolved(adapterPosition,spanCount);
+        return mGroupIndices[adapterPosition];
+    }
+
+    private void ensureResolved(int position,int spanCount) {
+        // the layout pass that applies the seen updates is running
+        mUpdateSeen = false;
+        if (spanCount != mSpanCount) {
+            mSpanCount = spanCount;
+            mValidCount = 0;
+        }
+        if (position < mValidCount) {
+            return;
+        }
+        if (position >= mSpanIndices.length) {
+            int capacity = Math.max(position + 1,mSpanIndices.length * 2);
+            mSpanIndices = Arrays.copyOf(mSpanIndices,capacity);
+            mGroupIndices = Arrays.copyOf(mGroupIndices,capacity);
+            mSizes = Arrays.copyOf(mSizes,capacity);
+        }
+        int span = 0;
+        int group = 0;
+        if (mValidCount > 0) {
+            int last = mValidCount - 1;
+            span = mSpanIndices[last] + mSizes[last];
+            group = mGroupIndices[last];
+            if (span >= spanCount) {
+                span = 0;
+                group++;
+            }
+        }
+        for (int i = mValidCount; i <= position; i++) {
+            int size = getSpanSize(i);
+            if (span + size > spanCount) {
+                span = 0;
+                group++;
+            }
+            mSizes[i] = size;
+            mSpanIndices[i] = span;
+            mGroupIndices[i] = group;
+            span += size;
+            if (span >= spanCount) {
+                span = 0;
+                group++;
+            }
+        }
+        mValidCount = position + 1;
+    }
+}
@@ -0,0 +1,108 @@
+package com.chad.library.adapter.base.util;
+
+import java.util.Arrays;
+
+/**
+ * Caches the view type of every data row so that
+ * {@link com.chad.library.adapter.base.BaseQuickAdapter#getItemViewType(int)} is an array read.
+ * <p>
+ * Structural changes shift the cached entries instead of dropping them, new or changed rows are
+ * marked {@link #UNKNOWN_TYPE} and resolved lazily the next time they are asked for.
+ * <p>
+ * 缓存每个数据条目的 viewType，增删改时只做增量调整，新条目在第一次使用时才计算
+ */
+public class ItemTypeCache {
+
+    /**
+     * Marks an entry that has not been resolved yet
+     */
+    public static final int UNKNOWN_TYPE = Integer.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] mTypes = new int[MIN_CAPACITY];
+    private int mSize;
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return the cached type, or {@link #UNKNOWN_TYPE} if it has not been resolved yet
+     */
+    public int get(int position) {
+        if (position < 0 || position >= mSize) {
+            return UNKNOWN_TYPE;
+        }
+        return mTypes[position];
+    }
+
+    public void put(int position,int type) {
+        if (position >= 0 && position < mSize) {
+            mTypes[position] = type;
+        }
+    }
+
+    /**
+     * Drop every cached type and resize the cache to {@code size} unknown entries.
+     */
+    public void reset(int size) {
+        ensureCapacity(size);
+        mSize = size;
+        Arrays.fill(mTypes,0,size,UNKNOWN_TYPE);
+    }
+
+    /**
+     * Mark every cached type as unknown, keeping the current size.
+     */
+    public void invalidate() {
+        Arrays.fill(mTypes,0,mSize,UNKNOWN_TYPE);
+    }
+
+    public void onInserted(int positionStart,int itemCount) {
+        if (itemCount <= 0 || positionStart < 0 || positionStart > mSize) {
+            return;
+        }
+        ensureCapacity(mSize + itemCount);
+        System.arraycopy(mTypes,positionStart,mTypes,positionStart + itemCount,mSize - positionStart);
+        Arrays.fill(mTypes,positionStart,positionStart + itemCount,UNKNOWN_TYPE);
+        mSize += itemCount;
+    }
+
+    public void onRemoved(int positionStart,int itemCount) {
+        int start = Math.max(positionStart,0);
+        int end = Math.min(positionStart + itemCount,mSize);
+        if (start >= end) {
+            return;
+        }
+        System.arraycopy(mTypes,end,mTypes,start,mSize - end);
+        mSize -= end - start;
+    }
+
+    public void onChanged(int positionStart,int itemCount) {
+        int start = Math.max(positionStart,0);
+        int end = Math.min(positionStart + itemCount,mSize);
+        if (start < end) {
+            Arrays.fill(mTypes,start,end,UNKNOWN_TYPE);
+        }
+    }
+
+    public void onMoved(int fromPosition,int toPosition) {
+        if (fromPosition < 0 || fromPosition >= mSize || toPosition < 0 || toPosition >= mSize || fromPosition == toPosition) {
+            return;
+        }
+        int type = mTypes[fromPosition];
+        if (fromPosition < toPosition) {
+            System.arraycopy(mTypes,fromPosition + 1,mTypes,fromPosition,toPosition - fromPosition);
+        } else {
+            System.arraycopy(mTypes,toPosition,mTypes,toPosition + 1,fromPosition - toPosition);
+        }
+        mTypes[toPosition] = type;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mTypes.length) {
+            mTypes = Arrays.copyOf(mTypes,Math.max(capacity,mTypes.length * 2));
+        }
+    }
+}
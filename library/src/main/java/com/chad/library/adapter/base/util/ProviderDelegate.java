@@ -4,15 +4,39 @@ import android.util.SparseArray;
 
 import com.chad.library.adapter.base.provider.BaseItemProvider;
 
+import java.util.HashMap;
+
 /**
  * https://github.com/chaychan
  * @author ChayChan
  * @date 2018/3/21  11:04
+ * <p>
+ * Providers are registered by their {@link BaseItemProvider#viewType()}, by an item class or by a key.
+ * A provider registered by class or key gets a view type assigned, its viewType() is not used.
+ * The class of an item is resolved once, a subclass or an implementation of an interface finds the
+ * provider registered for it, the result is cached per runtime class.
+ * 按 item 的 class 或 key 注册 provider，viewType 自动分配
  */
 
 public class ProviderDelegate {
 
+    public interface KeyExtractor<T> {
+        /**
+         * @return the key the provider of the item was registered with, see {@link #registerProviderForKey(Object, BaseItemProvider)}
+         */
+        Object getKey(T item);
+    }
+
+    public static final int TYPE_NOT_FOUND = -404;
+    /**
+     * assigned view types start here, away from the types of BaseQuickAdapter
+     */
+    private static final int AUTO_VIEW_TYPE_START = 0x00100000;
+
     private SparseArray<BaseItemProvider> mItemProviders = new SparseArray<>();
+    private final HashMap<Object, Integer> mKeyTypes = new HashMap<>();
+    private final HashMap<Class<?>, Integer> mClassTypes = new HashMap<>();
+    private int mNextViewType = AUTO_VIEW_TYPE_START;
 
     public void registerProvider(BaseItemProvider provider){
         if (provider == null){
@@ -26,8 +50,79 @@ public class ProviderDelegate {
         }
     }
 
+    /**
+     * Use the provider for items of the class, its subclasses and, for an interface, its implementations.
+     *
+     * @return the view type assigned to the provider
+     */
+    public synchronized int registerProvider(Class<?> itemClass, BaseItemProvider provider) {
+        int viewType = registerProviderForKey(itemClass, provider);
+        // a class registered later may be closer to a cached class than the one it resolved to
+        mClassTypes.clear();
+        return viewType;
+    }
+
+    /**
+     * Use the provider for items whose key is equal to {@code key}, see {@link KeyExtractor}.
+     *
+     * @return the view type assigned to the provider
+     */
+    public synchronized int registerProviderForKey(Object key, BaseItemProvider provider) {
+        if (provider == null || key == null) {
+            throw new ItemProviderException("ItemProvider and its key can not be null");
+        }
+        Integer registered = mKeyTypes.get(key);
+        if (registered != null) {
+            return registered;
+        }
+        int viewType = mNextViewType++;
+        mKeyTypes.put(key, viewType);
+        mItemProviders.put(viewType, provider);
+        return viewType;
+    }
+
+    /**
+     * @return the view type of the provider registered for the class of the item, {@link #TYPE_NOT_FOUND} if there is none
+     */
+    public synchronized int getViewType(Object item) {
+        Class<?> itemClass = item.getClass();
+        Integer viewType = mClassTypes.get(itemClass);
+        if (viewType == null) {
+            viewType = resolve(itemClass);
+            mClassTypes.put(itemClass, viewType);
+        }
+        return viewType;
+    }
+
+    /**
+     * @return the view type of the provider registered for the key, {@link #TYPE_NOT_FOUND} if there is none
+     */
+    public synchronized int getViewTypeForKey(Object key) {
+        Integer viewType = mKeyTypes.get(key);
+        return viewType == null ? TYPE_NOT_FOUND : viewType;
+    }
+
     public SparseArray<BaseItemProvider> getItemProviders(){
         return mItemProviders;
     }
 
+    /**
+     * The class itself, then its interfaces, then the same for the superclass.
+     */
+    private int resolve(Class<?> itemClass) {
+        for (Class<?> c = itemClass; c != null; c = c.getSuperclass()) {
+            Integer viewType = mKeyTypes.get(c);
+            if (viewType != null) {
+                return viewType;
+            }
+            for (Class<?> i : c.getInterfaces()) {
+                int interfaceType = resolve(i);
+                if (interfaceType != TYPE_NOT_FOUND) {
+                    return interfaceType;
+                }
+            }
+        }
+        return TYPE_NOT_FOUND;
+    }
+
 }
@@ -0,0 +1,32 @@
+package com.chad.library.adapter.base.util;
+
+import androidx.annotation.NonNull;
+
+import com.chad.library.adapter.base.BaseViewHolder;
+
+/**
+ * An adapter whose data rows are grouped into sections, each starting with a header row.
+ * The positions are data positions, see {@link com.chad.library.adapter.base.BaseQuickAdapter#getDataOffset()}.
+ */
+public interface SectionAdapter {
+
+    int getSectionCount();
+
+    /**
+     * @return the section the data position belongs to, -1 if it is in front of the first header
+     */
+    int getSectionForPosition(int position);
+
+    /**
+     * @return the data position of the header of the section
+     */
+    int getSectionHeaderPosition(int section);
+
+    /**
+     * Bind a holder of the header view type outside of the RecyclerView, e.g. a pinned header.
+     * Unlike onBindViewHolder it does not trigger load more, metrics or any other side effect of a bind.
+     *
+     * @param position the data position of the header
+     */
+    void bindSectionHeader(@NonNull BaseViewHolder holder, int position);
+}
@@ -0,0 +1,237 @@
+package com.chad.library.adapter.base.util;
+
+import java.util.Arrays;
+
+/**
+ * Sorted data positions of the section headers of a section adapter.
+ * <p>
+ * The adapter forwards its data notifications, an insert, remove, change or move only shifts the
+ * header positions behind it. The rows it touched are looked at by the next {@link #sync(int)},
+ * when the data is known to match the index. "Section of a position" and "index within the section"
+ * are a binary search over the headers.
+ * Rows in front of the first header belong to section -1.
+ * <p>
+ * 分组头的位置索引，随数据变化增量更新，按位置查询所在分组为二分查找
+ */
+public class SectionIndex {
+
+    public interface HeaderLookup {
+        /**
+         * @param position data position
+         */
+        boolean isSectionHeader(int position);
+    }
+
+    private final HeaderLookup mLookup;
+    private int[] mHeaders = new int[16];
+    private int mHeaderCount;
+    /**
+     * the data size the index is valid for, -1 if it has to be rebuilt
+     */
+    private int mSize = -1;
+    /**
+     * rows that were inserted or changed and not looked at yet
+     */
+    private int mDirtyStart = Integer.MAX_VALUE;
+    private int mDirtyEnd = Integer.MIN_VALUE;
+
+    public SectionIndex(HeaderLookup lookup) {
+        mLookup = lookup;
+    }
+
+    /**
+     * Rebuild the index if it was invalidated or was built for another data size,
+     * and look at the rows that were inserted or changed since the last call.
+     */
+    public void sync(int size) {
+        if (mSize != size) {
+            mHeaderCount = 0;
+            mSize = size;
+            clearDirty();
+            insertHeadersIn(0,0,size);
+            return;
+        }
+        if (mDirtyStart < mDirtyEnd) {
+            int end = Math.min(mDirtyEnd,mSize);
+            int from = lowerBound(mDirtyStart);
+            removeHeaders(from,lowerBound(end));
+            insertHeadersIn(from,mDirtyStart,end);
+            clearDirty();
+        }
+    }
+
+    public void invalidate() {
+        mSize = -1;
+    }
+
+    public void onInserted(int positionStart,int itemCount) {
+        if (mSize < 0 || itemCount <= 0) {
+            return;
+        }
+        if (positionStart < 0 || positionStart > mSize) {
+            invalidate();
+            return;
+        }
+        shift(lowerBound(positionStart),itemCount);
+        mSize += itemCount;
+        if (mDirtyStart < mDirtyEnd) {
+            if (positionStart <= mDirtyStart) {
+                mDirtyStart += itemCount;
+                mDirtyEnd += itemCount;
+            } else if (positionStart < mDirtyEnd) {
+                mDirtyEnd += itemCount;
+            }
+        }
+        // the rows are looked at in sync(), the data may already be ahead of this notify
+        markDirty(positionStart,positionStart + itemCount);
+    }
+
+    public void onRemoved(int positionStart,int itemCount) {
+        if (mSize < 0) {
+            return;
+        }
+        int start = Math.max(positionStart,0);
+        int end = Math.min(positionStart + itemCount,mSize);
+        if (start >= end) {
+            return;
+        }
+        int from = lowerBound(start);
+        removeHeaders(from,lowerBound(end));
+        shift(from,start - end);
+        mSize -= end - start;
+        if (mDirtyStart < mDirtyEnd) {
+            mDirtyStart = mapRemoved(mDirtyStart,start,end);
+            mDirtyEnd = mapRemoved(mDirtyEnd,start,end);
+            if (mDirtyStart >= mDirtyEnd) {
+                clearDirty();
+            }
+        }
+    }
+
+    public void onChanged(int positionStart,int itemCount) {
+        if (mSize < 0) {
+            return;
+        }
+        int start = Math.max(positionStart,0);
+        int end = Math.min(positionStart + itemCount,mSize);
+        if (start < end) {
+            markDirty(start,end);
+        }
+    }
+
+    public void onMoved(int fromPosition,int toPosition) {
+        if (mSize < 0 || fromPosition == toPosition) {
+            return;
+        }
+        if (fromPosition < 0 || fromPosition >= mSize || toPosition < 0 || toPosition >= mSize) {
+            invalidate();
+            return;
+        }
+        onRemoved(fromPosition,1);
+        onInserted(toPosition,1);
+    }
+
+    public int getSectionCount() {
+        return mHeaderCount;
+    }
+
+    /**
+     * @return the section the data position belongs to, -1 if it is in front of the first header
+     */
+    public int getSectionForPosition(int position) {
+        return lowerBound(position + 1) - 1;
+    }
+
+    /**
+     * @return the data position of the header of the section, -1 for section -1
+     */
+    public int getHeaderPosition(int section) {
+        return section < 0 ? -1 : mHeaders[section];
+    }
+
+    /**
+     * @return the index of the data position among the rows of its section, -1 for a header
+     */
+    public int getIndexInSection(int position) {
+        return position - getHeaderPosition(getSectionForPosition(position)) - 1;
+    }
+
+    /**
+     * @return the number of rows of the section without its header
+     */
+    public int getSectionItemCount(int section) {
+        int end = section + 1 < mHeaderCount ? mHeaders[section + 1] : mSize;
+        return end - getHeaderPosition(section) - 1;
+    }
+
+    public boolean isHeader(int position) {
+        int index = lowerBound(position);
+        return index < mHeaderCount && mHeaders[index] == position;
+    }
+
+    /**
+     * @return the first index whose header position is not below {@code position}
+     */
+    private int lowerBound(int position) {
+        int low = 0;
+        int high = mHeaderCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mHeaders[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void markDirty(int start,int end) {
+        mDirtyStart = Math.min(mDirtyStart,start);
+        mDirtyEnd = Math.max(mDirtyEnd,end);
+    }
+
+    private void clearDirty() {
+        mDirtyStart = Integer.MAX_VALUE;
+        mDirtyEnd = Integer.MIN_VALUE;
+    }
+
+    private static int mapRemoved(int position,int start,int end) {
+        if (position <= start) {
+            return position;
+        }
+        return position >= end ? position - (end - start) : start;
+    }
+
+    private void removeHeaders(int fromIndex,int toIndex) {
+        System.arraycopy(mHeaders,toIndex,mHeaders,fromIndex,mHeaderCount - toIndex);
+        mHeaderCount -= toIndex - fromIndex;
+    }
+
+    private void shift(int fromIndex,int delta) {
+        for (int i = fromIndex; i < mHeaderCount; i++) {
+            mHeaders[i] += delta;
+        }
+    }
+
+    private void insertHeadersIn(int index,int start,int end) {
+        for (int i = start; i < end; i++) {
+            if (mLookup.isSectionHeader(i)) {
+                insertAt(index++,i);
+            }
+        }
+    }
+
+    private void insertAt(int index,int position) {
+        ensureCapacity(mHeaderCount + 1);
+        System.arraycopy(mHeaders,index,mHeaders,index + 1,mHeaderCount - index);
+        mHeaders[index] = position;
+        mHeaderCount++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mHeaders.length) {
+            mHeaders = Arrays.copyOf(mHeaders,Math.max(capacity,mHeaders.length * 2));
+        }
+    }
+}
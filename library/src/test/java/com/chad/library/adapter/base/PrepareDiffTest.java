@@ -0,0 +1,150 @@
+package com.chad.library.adapter.base;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.chad.library.adapter.base.diff.BaseQuickDiffCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The prepare stage has to see the items of the new list after a diff, not the ones of the old list
+ * at the positions in between that the diff notifies.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PrepareDiffTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    private final List<Item> mPrepared = new ArrayList<>();
+    private Adapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new Adapter(new ArrayList<>(Arrays.asList(new Item(1, "a"), new Item(2, "b"), new Item(3, "c"))));
+        mAdapter.setItemPreparer(new BaseQuickAdapter.ItemPreparer<Item>() {
+            @Override
+            public Object prepare(@NonNull Item item) {
+                mPrepared.add(item);
+                return item.mText;
+            }
+        }, DIRECT, 16);
+        // the structure observer only runs while the adapter is observed
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+        });
+        for (Item item : mAdapter.getData()) {
+            mAdapter.getPreparedModel(item);
+        }
+        mPrepared.clear();
+    }
+
+    @Test
+    public void changedItemIsPreparedFromTheNewList() {
+        Item changed = new Item(2, "b2");
+        mAdapter.setNewDiffData(new Callback(Arrays.asList(new Item(1, "a"), changed, new Item(3, "c"))));
+        ShadowLooper.idleMainLooper();
+
+        // before getPreparedModel, which would prepare a missing model itself
+        assertEquals(1, mPrepared.size());
+        assertTrue(containsInstance(mPrepared, changed));
+        assertEquals("b2", mAdapter.getPreparedModel(changed));
+    }
+
+    @Test
+    public void insertedAndChangedItemsArePreparedFromTheNewList() {
+        Item inserted = new Item(4, "d");
+        Item changed = new Item(3, "c2");
+        mAdapter.setNewDiffData(new Callback(Arrays.asList(inserted, new Item(2, "b"), changed)));
+        ShadowLooper.idleMainLooper();
+
+        assertEquals(2, mPrepared.size());
+        assertTrue(containsInstance(mPrepared, inserted));
+        assertTrue(containsInstance(mPrepared, changed));
+        assertEquals("c2", mAdapter.getPreparedModel(changed));
+        assertEquals("d", mAdapter.getPreparedModel(inserted));
+    }
+
+    private static boolean containsInstance(List<Item> items, Item item) {
+        for (Item i : items) {
+            if (i == item) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Equal by id, like the keys of the model cache usually are.
+     */
+    private static final class Item {
+        final int mId;
+        final String mText;
+
+        Item(int id, String text) {
+            mId = id;
+            mText = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Item && ((Item) o).mId == mId;
+        }
+
+        @Override
+        public int hashCode() {
+            return mId;
+        }
+
+        @Override
+        public String toString() {
+            return mId + ":" + mText;
+        }
+    }
+
+    private static final class Callback extends BaseQuickDiffCallback<Item> {
+
+        Callback(List<Item> newList) {
+            super(newList);
+        }
+
+        @Override
+        protected boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.mId == newItem.mId;
+        }
+
+        @Override
+        protected boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.mText.equals(newItem.mText);
+        }
+    }
+
+    private static final class Adapter extends BaseQuickAdapter<Item, BaseViewHolder> {
+
+        Adapter(List<Item> data) {
+            super(0, data);
+        }
+
+        @Override
+        protected void convert(@NonNull BaseViewHolder helper, @NonNull Item item) {
+        }
+    }
+}
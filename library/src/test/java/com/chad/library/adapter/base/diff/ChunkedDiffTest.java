@@ -0,0 +1,248 @@
+package com.chad.library.adapter.base.diff;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Applies the updates of a {@link ChunkedDiff} and of a sequential {@link DiffUtil} diff to copies of
+ * the old list, both have to end up with the new list.
+ */
+public class ChunkedDiffTest {
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+
+    @Test
+    public void chunkedAndSequentialEndWithTheNewList() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            List<Item> oldList = new ArrayList<>();
+            for (int i = 0; i < 6000; i++) {
+                oldList.add(new Item(i, 0));
+            }
+            List<Item> newList = edit(oldList, random);
+            for (boolean detectMoves : new boolean[]{false, true}) {
+                List<Item> chunked = applyChunked(oldList, newList, detectMoves);
+                List<Item> sequential = applySequential(oldList, newList, detectMoves);
+                assertEquals(newList, sequential);
+                assertEquals(newList, chunked);
+                assertEquals(sequential, chunked);
+            }
+        }
+    }
+
+    @Test
+    public void errorOfAPartIsRethrown() {
+        List<Item> oldList = new ArrayList<>();
+        List<Item> newList = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            oldList.add(new Item(i, 0));
+            newList.add(new Item(i, 1));
+        }
+        final AssertionError error = new AssertionError("part failed");
+        Callback callback = new Callback(newList) {
+            @Override
+            protected boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+                if (oldItem.mId == 100) {
+                    throw error;
+                }
+                return super.areContentsTheSame(oldItem, newItem);
+            }
+        };
+        callback.setOldList(oldList);
+        try {
+            ChunkedDiff.calculateDiff(callback, new Keys(), false, EXECUTOR);
+            fail("the error of the part was swallowed");
+        } catch (AssertionError e) {
+            assertSame(error, e);
+        }
+    }
+
+    @Test
+    public void rejectedPartsRunOnTheCallingThread() {
+        List<Item> oldList = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            oldList.add(new Item(i, 0));
+        }
+        List<Item> newList = edit(oldList, new Random(7));
+        Callback callback = new Callback(newList);
+        callback.setOldList(oldList);
+        ExecutorService shutDown = Executors.newSingleThreadExecutor();
+        shutDown.shutdown();
+        ChunkedDiff.Result result = ChunkedDiff.calculateDiff(callback, new Keys(), true, shutDown);
+        ApplyingCallback applying = new ApplyingCallback(oldList);
+        result.dispatchUpdatesTo(applying);
+        assertEquals(newList, applying.finish(newList));
+    }
+
+    /**
+     * Removes, inserts, changes and swaps items, keeping most of them as anchors.
+     */
+    private static List<Item> edit(List<Item> oldList, Random random) {
+        List<Item> newList = new ArrayList<>(oldList);
+        int nextId = oldList.size();
+        for (int i = 0; i < 200; i++) {
+            int position = random.nextInt(newList.size());
+            switch (random.nextInt(4)) {
+                case 0:
+                    newList.remove(position);
+                    break;
+                case 1:
+                    newList.add(position, new Item(nextId++, 0));
+                    break;
+                case 2:
+                    Item item = newList.get(position);
+                    newList.set(position, new Item(item.mId, item.mVersion + 1));
+                    break;
+                default:
+                    int other = Math.min(newList.size() - 1, position + 1 + random.nextInt(3000));
+                    newList.set(position, newList.set(other, newList.get(position)));
+                    break;
+            }
+        }
+        return newList;
+    }
+
+    private static List<Item> applyChunked(List<Item> oldList, List<Item> newList, boolean detectMoves) {
+        Callback callback = new Callback(newList);
+        callback.setOldList(oldList);
+        ChunkedDiff.Result result = ChunkedDiff.calculateDiff(callback, new Keys(), detectMoves, EXECUTOR);
+        ApplyingCallback applying = new ApplyingCallback(oldList);
+        result.dispatchUpdatesTo(applying);
+        return applying.finish(newList);
+    }
+
+    private static List<Item> applySequential(List<Item> oldList, List<Item> newList, boolean detectMoves) {
+        Callback callback = new Callback(newList);
+        callback.setOldList(oldList);
+        ApplyingCallback applying = new ApplyingCallback(oldList);
+        DiffUtil.calculateDiff(callback, detectMoves).dispatchUpdatesTo(applying);
+        return applying.finish(newList);
+    }
+
+    private static final class Item {
+        final int mId;
+        final int mVersion;
+
+        Item(int id, int version) {
+            mId = id;
+            mVersion = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Item && ((Item) o).mId == mId && ((Item) o).mVersion == mVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return mId * 31 + mVersion;
+        }
+
+        @Override
+        public String toString() {
+            return mId + "v" + mVersion;
+        }
+    }
+
+    private static class Callback extends BaseQuickDiffCallback<Item> {
+
+        Callback(List<Item> newList) {
+            super(newList);
+        }
+
+        @Override
+        protected boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.mId == newItem.mId;
+        }
+
+        @Override
+        protected boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.mVersion == newItem.mVersion;
+        }
+    }
+
+    private static final class Keys implements ChunkedDiff.KeyProvider<Item> {
+        @Nullable
+        @Override
+        public Object getKey(@NonNull Item item) {
+            return item.mId;
+        }
+    }
+
+    /**
+     * Applies the updates to a copy of the old list like an adapter would. Inserted and changed rows
+     * are marked and only take their item from the new list at the end, a missed update shows up as
+     * an old item.
+     */
+    private static final class ApplyingCallback implements ListUpdateCallback {
+        private final List<Item> mItems;
+        private final List<Boolean> mUpdated;
+
+        ApplyingCallback(List<Item> oldList) {
+            mItems = new ArrayList<>(oldList);
+            mUpdated = new ArrayList<>();
+            for (int i = 0; i < oldList.size(); i++) {
+                mUpdated.add(Boolean.FALSE);
+            }
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                mItems.add(position, null);
+                mUpdated.add(position, Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                mItems.remove(position);
+                mUpdated.remove(position);
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            mItems.add(toPosition, mItems.remove(fromPosition));
+            mUpdated.add(toPosition, mUpdated.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            for (int i = 0; i < count; i++) {
+                mUpdated.set(position + i, Boolean.TRUE);
+            }
+        }
+
+        List<Item> finish(List<Item> newList) {
+            assertEquals(newList.size(), mItems.size());
+            for (int i = 0; i < mItems.size(); i++) {
+                if (mUpdated.get(i)) {
+                    mItems.set(i, newList.get(i));
+                }
+            }
+            return mItems;
+        }
+    }
+}